@@ -0,0 +1,159 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchPlannerTest {
+    private static final int MISSIONS = 500;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void emitsResultsInMissionOrder() throws IOException {
+        List<String> ids = new ArrayList<>();
+        long[] progress = {0};
+        BatchPlanner.Summary summary;
+        try (BatchPlanner planner = new BatchPlanner(4, 16)) {
+            summary = planner.run(missions(new Random(42)).iterator(), MISSIONS, result -> {
+                assertNull(result.getError());
+                ids.add(result.getId());
+            }, (done, total, elapsed) -> progress[0] = done);
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < MISSIONS; i++) expected.add("m" + i);
+        assertEquals(expected, ids);
+        assertEquals(MISSIONS, summary.getMissions());
+        assertEquals(0, summary.getFailures());
+        assertEquals(MISSIONS, progress[0]);
+    }
+
+    @Test
+    void resultsDoNotDependOnThreadCount() throws IOException {
+        assertEquals(plan(1, 1), plan(8, 32));
+    }
+
+    @Test
+    void writesRoutesAndReportsFailuresPerMission() throws IOException {
+        List<BatchPlanner.Mission> missions = Arrays.asList(
+                new BatchPlanner.Mission("ok", 0.035, 0.024, 0.036, 120, 200, 200),
+                new BatchPlanner.Mission("missing/route", 0.035, 0.024, 0.036, 120, 200, 200)
+        );
+        List<BatchPlanner.Result> results = new ArrayList<>();
+        BatchPlanner.Summary summary;
+        try (BatchPlanner planner = new BatchPlanner(2, 2, dir)) {
+            summary = planner.run(missions.iterator(), missions.size(), results::add, null);
+        }
+        assertEquals(1, summary.getFailures());
+        assertNull(results.get(0).getError());
+        assertNotNull(results.get(1).getError());
+
+        StringBuilder expected = new StringBuilder();
+        RoutePlanner.printRoute(RoutePlanner.plan(0.035, 0.024, 0.036, 120, 200, 200), expected);
+        assertEquals(expected.toString(), new String(Files.readAllBytes(dir.resolve("ok.txt")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsMissionsSkippingHeaderCommentsAndBlankLines() {
+        String csv = "id,focus,censor_height,censor_width,height,field_height,field_width\n"
+                + "# pilot run\n"
+                + "\n"
+                + "a, 0.035, 0.024, 0.036, 120, 200, 300\n"
+                + "b,0.024,0.0156,0.0235,60,100,100\n";
+        List<String> ids = new ArrayList<>();
+        for (Iterator<BatchPlanner.Mission> missions = BatchPlanner.read(new BufferedReader(new StringReader(csv))); missions.hasNext(); ) {
+            ids.add(missions.next().getId());
+        }
+        assertEquals(Arrays.asList("a", "b"), ids);
+        assertFalse(BatchPlanner.read(new BufferedReader(new StringReader("# empty\n"))).hasNext());
+    }
+
+    @Test
+    void rejectsIdsThatEscapeTheRouteDirectory() throws IOException {
+        Path routes = Files.createDirectories(dir.resolve("routes"));
+        List<BatchPlanner.Mission> missions = Arrays.asList(
+                new BatchPlanner.Mission("../escaped", 0.035, 0.024, 0.036, 120, 200, 200),
+                new BatchPlanner.Mission("..", 0.035, 0.024, 0.036, 120, 200, 200),
+                new BatchPlanner.Mission("nested\\route", 0.035, 0.024, 0.036, 120, 200, 200)
+        );
+        List<BatchPlanner.Result> results = new ArrayList<>();
+        try (BatchPlanner planner = new BatchPlanner(1, 1, routes)) {
+            assertEquals(3, planner.run(missions.iterator(), missions.size(), results::add, null).getFailures());
+        }
+        for (BatchPlanner.Result result : results) assertTrue(result.getError().contains("not a plain file name"), result.getError());
+        assertFalse(Files.exists(dir.resolve("escaped.txt")));
+        assertFalse(Files.exists(dir.resolve("..txt")));
+        try (Stream<Path> files = Files.list(routes)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void malformedLinesFailOnlyTheirMission() throws IOException {
+        String csv = "a,0.035,0.024,0.036,120,200,300\n"
+                + "b,0.035,abc,0.036,120,200,300\n"
+                + "c,0.035\n"
+                + "d,0.024,0.0156,0.0235,60,100,100\n";
+        StringBuilder out = new StringBuilder(BatchPlanner.HEADER).append('\n');
+        BatchPlanner.Summary summary;
+        try (BatchPlanner planner = new BatchPlanner(2, 2)) {
+            summary = planner.run(BatchPlanner.read(new BufferedReader(new StringReader(csv))), 4, result -> result.write(out), null);
+        }
+        assertEquals(4, summary.getMissions());
+        assertEquals(2, summary.getFailures());
+
+        String[] rows = out.toString().split("\n", -1);
+        assertEquals(6, rows.length);
+        assertEquals("", rows[5]);
+        int columns = BatchPlanner.HEADER.split(",", -1).length;
+        for (int i = 0; i < 5; i++) assertEquals(columns, rows[i].split(",", -1).length, rows[i]);
+        assertTrue(rows[1].startsWith("a,") && rows[1].endsWith(","), rows[1]);
+        assertTrue(rows[2].startsWith("b,,,,,,Line 2"), rows[2]);
+        assertTrue(rows[3].startsWith("c,,,,,,Line 3"), rows[3]);
+        assertTrue(rows[4].startsWith("d,") && rows[4].endsWith(","), rows[4]);
+        assertFalse(out.toString().contains("\r"));
+    }
+
+    private static String plan(int threads, int window) throws IOException {
+        StringBuilder out = new StringBuilder();
+        try (BatchPlanner planner = new BatchPlanner(threads, window)) {
+            planner.run(missions(new Random(7)).iterator(), MISSIONS, result -> out.append(result.getId())
+                    .append(',').append(result.getWaypoints()).append(',').append(result.getLength()).append('\n'), null);
+        }
+        return out.toString();
+    }
+
+    private static List<BatchPlanner.Mission> missions(Random random) {
+        List<BatchPlanner.Mission> missions = new ArrayList<>(MISSIONS);
+        for (int i = 0; i < MISSIONS; i++) {
+            missions.add(new BatchPlanner.Mission(
+                    "m" + i,
+                    0.024 + random.nextInt(4) * 0.011,
+                    0.0156, 0.0235,
+                    60 + random.nextInt(90),
+                    100 + random.nextDouble() * 900,
+                    100 + random.nextDouble() * 900
+            ));
+        }
+        return missions;
+    }
+}
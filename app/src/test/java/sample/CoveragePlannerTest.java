@@ -0,0 +1,136 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoveragePlannerTest {
+    private static final double PHOTO_HEIGHT = 20, PHOTO_WIDTH = 30;
+
+    private final CoveragePlanner planner = new CoveragePlanner(PHOTO_HEIGHT, PHOTO_WIDTH);
+
+    @Test
+    void coversIrregularField() {
+        assertCovered(field(4000, 0));
+    }
+
+    @Test
+    void coversFieldAroundPonds() {
+        assertCovered(field(4000, 0), circle(450, 520, 90, 256), circle(780, 700, 60, 256));
+    }
+
+    @Test
+    void coversLShapedField() {
+        assertCovered(new double[] {0, 0, 1000, 0, 1000, 400, 400, 400, 400, 1000, 0, 1000});
+    }
+
+    @Test
+    void coversSpikeBetweenSamplePositions() {
+        // The spike sits inside one strip, clear of its edges and centre.
+        assertCovered(new double[] {0, 0, 300, 0, 300, 200, 160, 200, 157, 260, 154, 200, 0, 200});
+    }
+
+    @Test
+    void estimateCountsThePlannedPhotos() {
+        double[][] rings = {field(4000, 0), circle(450, 520, 90, 256)};
+        CoveragePlanner.Plan plan = planner.plan(rings);
+        // The planned route closes back at its first waypoint.
+        assertEquals(plan.getRoute().size() - 1, planner.estimate(rings).getPhotos());
+    }
+
+    @Test
+    void rejectsEmptyFootprint() {
+        assertThrows(IllegalArgumentException.class, () -> new CoveragePlanner(0, PHOTO_WIDTH));
+    }
+
+    // Samples points inside the field and checks each, and every vertex, lies under some photo, and that skipping the area outside the
+    // polygon takes fewer photos than flying the bounding box.
+    private void assertCovered(double[]... rings) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < rings[0].length; i += 2) {
+            minX = Math.min(minX, rings[0][i]);
+            maxX = Math.max(maxX, rings[0][i]);
+            minY = Math.min(minY, rings[0][i + 1]);
+            maxY = Math.max(maxY, rings[0][i + 1]);
+        }
+        Route route = planner.plan(rings).getRoute();
+        assertTrue(route.size() < new RouteGenerator(PHOTO_HEIGHT, PHOTO_WIDTH, maxY - minY, maxX - minX).size());
+
+        Set<Long> photos = new HashSet<>();
+        for (int i = 0; i < route.size(); i++) photos.add(cell(route.getX(i), route.getY(i)));
+        Random random = new Random(7);
+        int inside = 0, covered = 0;
+        while (inside < 2000) {
+            double x = minX + random.nextDouble() * (maxX - minX), y = minY + random.nextDouble() * (maxY - minY);
+            if (!contains(rings, x, y)) continue;
+            inside++;
+            if (nearCell(photos, x, y) && near(route, x, y)) covered++;
+        }
+        assertEquals(inside, covered, "Only " + covered + " of " + inside + " sampled points covered");
+        for (double[] ring : rings) {
+            for (int i = 0; i < ring.length; i += 2) {
+                assertTrue(near(route, ring[i], ring[i + 1]), "Vertex " + ring[i] + "," + ring[i + 1] + " not covered");
+            }
+        }
+    }
+
+    private static boolean nearCell(Set<Long> photos, double x, double y) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                if (photos.contains(cell(x + dx * PHOTO_WIDTH, y + dy * PHOTO_HEIGHT))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static long cell(double x, double y) {
+        return (long) Math.floor(x / PHOTO_WIDTH) << 32 ^ (long) Math.floor(y / PHOTO_HEIGHT) & 0xffffffffL;
+    }
+
+    private static boolean near(Route route, double x, double y) {
+        for (int i = 0; i < route.size(); i++) {
+            if (Math.abs(route.getX(i) - x) <= PHOTO_WIDTH / 2 + 1e-9 && Math.abs(route.getY(i) - y) <= PHOTO_HEIGHT / 2 + 1e-9) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(double[][] rings, double x, double y) {
+        boolean inside = false;
+        for (double[] ring : rings) {
+            int points = ring.length / 2;
+            for (int i = 0, j = points - 1; i < points; j = i++) {
+                double ax = ring[i * 2], ay = ring[i * 2 + 1], bx = ring[j * 2], by = ring[j * 2 + 1];
+                if ((ay > y) != (by > y) && x < (bx - ax) * (y - ay) / (by - ay) + ax) inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static double[] field(int vertices, long seed) {
+        Random random = new Random(seed);
+        double[] ring = new double[vertices * 2];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = 400 + 150 * Math.sin(3 * angle) + 50 * Math.sin(7 * angle) + random.nextDouble() * 5;
+            ring[i * 2] = 600 + radius * Math.cos(angle);
+            ring[i * 2 + 1] = 600 + radius * Math.sin(angle);
+        }
+        return ring;
+    }
+
+    private static double[] circle(double x, double y, double radius, int vertices) {
+        double[] ring = new double[vertices * 2];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            ring[i * 2] = x + radius * Math.cos(angle);
+            ring[i * 2 + 1] = y + radius * Math.sin(angle);
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,87 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoProjectionTest {
+    private static final MapView.LatLng ORIGIN = new MapView.LatLng(50.466977, 31.211438);
+    private static final int ZOOM = 17;
+
+    @Test
+    void staysWithinHalfAMetreAndPixelOfExactProjections() {
+        for (double size : new double[] {200, 1000}) {
+            GeoProjection projection = new GeoProjection(ORIGIN, size, size);
+            double[] metres = grid(size), lngLat = new double[metres.length], pixels = new double[metres.length];
+            int count = metres.length / 2;
+            projection.metresToLngLat(metres, 0, lngLat, 0, count);
+            projection.metresToPixels(metres, 0, pixels, 0, count, ZOOM);
+            for (int i = 0; i < metres.length; i += 2) {
+                double[] enu = enu(lngLat[i + 1], lngLat[i]);
+                double metreError = Math.hypot(enu[0] - metres[i], enu[1] - metres[i + 1]);
+                double pixelError = Math.hypot(
+                        TileSeeder.worldX(lngLat[i], ZOOM) - pixels[i],
+                        TileSeeder.worldY(lngLat[i + 1], ZOOM) - pixels[i + 1]
+                );
+                assertTrue(metreError <= 0.5, size + " m field off by " + metreError + " m at " + metres[i] + "," + metres[i + 1]);
+                assertTrue(pixelError <= 0.5, size + " m field off by " + pixelError + " px at " + metres[i] + "," + metres[i + 1]);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsAreExactToAMicrometre() {
+        for (double size : new double[] {200, 1000, 5000}) {
+            GeoProjection projection = new GeoProjection(ORIGIN, size, size);
+            double[] metres = grid(size), converted = new double[metres.length], back = new double[metres.length];
+            int count = metres.length / 2;
+
+            projection.metresToLngLat(metres, 0, converted, 0, count);
+            projection.lngLatToMetres(converted, 0, back, 0, count);
+            assertArrayEquals(metres, back, 1e-6);
+
+            projection.metresToPixels(metres, 0, converted, 0, count, ZOOM);
+            projection.pixelsToMetres(converted, 0, back, 0, count, ZOOM);
+            assertArrayEquals(metres, back, 1e-6);
+
+            projection.metresToUnits(metres, 0, back, 0, count);
+            projection.unitsToMetres(back, 0, back, 0, count);
+            assertArrayEquals(metres, back, 1e-6);
+        }
+    }
+
+    private static double[] grid(double size) {
+        int steps = 50;
+        double[] metres = new double[(steps + 1) * (steps + 1) * 2];
+        for (int i = 0, k = 0; i <= steps; i++) {
+            for (int j = 0; j <= steps; j++, k += 2) {
+                metres[k] = size * i / steps;
+                metres[k + 1] = size * j / steps;
+            }
+        }
+        return metres;
+    }
+
+    // East-north-up offset from the origin on the WGS84 ellipsoid.
+    private static double[] enu(double latitude, double longitude) {
+        double[] origin = ecef(ORIGIN.getLatitude(), ORIGIN.getLongitude()), point = ecef(latitude, longitude);
+        double dx = point[0] - origin[0], dy = point[1] - origin[1], dz = point[2] - origin[2];
+        double phi = Math.toRadians(ORIGIN.getLatitude()), lambda = Math.toRadians(ORIGIN.getLongitude());
+        return new double[] {
+                -Math.sin(lambda) * dx + Math.cos(lambda) * dy,
+                -Math.sin(phi) * Math.cos(lambda) * dx - Math.sin(phi) * Math.sin(lambda) * dy + Math.cos(phi) * dz
+        };
+    }
+
+    private static double[] ecef(double latitude, double longitude) {
+        double a = 6378137.0, e2 = 6.69437999014e-3;
+        double phi = Math.toRadians(latitude), lambda = Math.toRadians(longitude);
+        double n = a / Math.sqrt(1 - e2 * Math.sin(phi) * Math.sin(phi));
+        return new double[] {
+                n * Math.cos(phi) * Math.cos(lambda),
+                n * Math.cos(phi) * Math.sin(lambda),
+                n * (1 - e2) * Math.sin(phi)
+        };
+    }
+}
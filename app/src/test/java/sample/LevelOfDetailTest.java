@@ -0,0 +1,101 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevelOfDetailTest {
+    @Test
+    void removingCollinearPointsIsLossless() {
+        for (double[] xy : routes()) {
+            double[] kept = LevelOfDetail.removeCollinear(xy, 0, xy.length / 2);
+            assertTrue(kept.length < xy.length);
+            assertWithin(xy, kept, 1e-12);
+        }
+    }
+
+    @Test
+    void polylineLevelsStayWithinTheirCell() {
+        int checked = 0;
+        double[][] routes = Arrays.copyOf(routes(), routes().length + 1);
+        // Survey routes turn at every column, so only a curve sampled far below the finest cell yields levels.
+        routes[routes.length - 1] = spiral(20000);
+        for (double[] xy : routes) {
+            List<LevelOfDetail.Level> levels = LevelOfDetail.polylineLevels(xy, 0, xy.length / 2);
+            checked += levels.size();
+            for (LevelOfDetail.Level level : levels) {
+                assertWithin(xy, level.getXY(), level.getCell() * Math.sqrt(2));
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void markerLevelsKeepOneMarkerPerCell() {
+        for (double[] xy : routes()) {
+            List<LevelOfDetail.Level> levels = LevelOfDetail.markerLevels(xy, 0, xy.length / 2);
+            assertFalse(levels.isEmpty());
+            for (LevelOfDetail.Level level : levels) {
+                Set<String> cells = new HashSet<>();
+                double[] kept = level.getXY();
+                for (int i = 0; i < kept.length; i += 2) {
+                    String cell = Math.floor(kept[i] / level.getCell()) + ":" + Math.floor(kept[i + 1] / level.getCell());
+                    assertTrue(cells.add(cell), "Two markers kept in cell " + cell);
+                }
+            }
+        }
+    }
+
+    private static double[][] routes() {
+        return new double[][] {unitRoute(1, 1, 1000, 1000), unitRoute(1, 1, 300, 300), unitRoute(1, 1, 201, 300), unitRoute(0.7, 1.3, 150.5, 90.2)};
+    }
+
+    private static double[] unitRoute(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        Route route = new RouteGenerator(photoHeight, photoWidth, fieldHeight, fieldWidth).toRoute();
+        double[] xy = new double[route.size() * 2];
+        for (int i = 0; i < route.size(); i++) {
+            xy[i * 2] = route.getX(i) / fieldWidth;
+            xy[i * 2 + 1] = 1 - route.getY(i) / fieldHeight;
+        }
+        return xy;
+    }
+
+    private static double[] spiral(int points) {
+        double[] xy = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            double t = (double) i / points, angle = t * 8 * Math.PI;
+            xy[i * 2] = 0.5 + 0.45 * t * Math.cos(angle);
+            xy[i * 2 + 1] = 0.5 + 0.45 * t * Math.sin(angle);
+        }
+        return xy;
+    }
+
+    // The simplified polyline keeps the first and last point, is a subsequence of the route, and passes within
+    // tolerance of every dropped waypoint.
+    private static void assertWithin(double[] xy, double[] kept, double tolerance) {
+        int k = 0;
+        for (int i = 0; i < xy.length; i += 2) {
+            if (k + 3 < kept.length && kept[k + 2] == xy[i] && kept[k + 3] == xy[i + 1]) k += 2;
+            int next = Math.min(k + 2, kept.length - 2);
+            double distance = distance(xy[i], xy[i + 1], kept[k], kept[k + 1], kept[next], kept[next + 1]);
+            assertTrue(distance <= tolerance, "Waypoint " + i / 2 + " is " + distance + " from the simplified route");
+        }
+        assertEquals(xy[0], kept[0]);
+        assertEquals(xy[xy.length - 1], kept[kept.length - 1]);
+        assertEquals(kept.length - 2, k, "Simplified route is not a subsequence of the original");
+    }
+
+    private static double distance(double x, double y, double ax, double ay, double bx, double by) {
+        double dx = bx - ax, dy = by - ay;
+        double length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((x - ax) * dx + (y - ay) * dy) / length));
+        return Math.hypot(x - (ax + t * dx), y - (ay + t * dy));
+    }
+}
@@ -0,0 +1,72 @@
+package sample;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapViewMetricsTest {
+    @Test
+    void unregisterRemovesTheMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("sample:type=MapView,name=" + ObjectName.quote("MapViewMetricsTest"));
+        MapViewMetrics metrics = new MapViewMetrics();
+
+        metrics.register("MapViewMetricsTest");
+        assertTrue(server.isRegistered(name));
+        metrics.unregister();
+        assertFalse(server.isRegistered(name));
+        metrics.unregister();
+
+        metrics.register("MapViewMetricsTest");
+        assertTrue(server.isRegistered(name));
+        metrics.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void registeredMetricsAreReadableThroughJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("sample:type=MapView,name=" + ObjectName.quote("MapViewMetricsTest-read"));
+        MapViewMetrics metrics = new MapViewMetrics();
+        metrics.register("MapViewMetricsTest-read");
+        try {
+            metrics.redrawRequested(false);
+            metrics.redrawRequested(true);
+            assertEquals(1L, ((Number) server.getAttribute(name, "CoalescedRedraws")).longValue());
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    void bridgeCallsAreRecordedOnlyWhileEnabled(@TempDir Path dir) throws Exception {
+        MapViewMetrics metrics = new MapViewMetrics();
+        assertEquals("done", metrics.bridgeCall("execute", "first()", () -> "done"));
+        try (Recording recording = new Recording()) {
+            recording.enable("sample.MapView.BridgeCall").withoutThreshold();
+            recording.start();
+            metrics.bridgeCall("execute", "second()", () -> null);
+            recording.stop();
+            recording.dump(dir.resolve("bridge.jfr"));
+        }
+        metrics.bridgeCall("execute", "third()", () -> null);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dir.resolve("bridge.jfr"));
+        events.removeIf(event -> !event.getEventType().getName().equals("sample.MapView.BridgeCall"));
+        assertEquals(1, events.size());
+        assertEquals("second()".length(), events.get(0).getInt("scriptLength"));
+        assertEquals(3, metrics.getBridgeCalls());
+    }
+}
@@ -0,0 +1,67 @@
+package sample;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelRoutePlannerTest {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void splitsLargeRoutesIntoStrips() {
+        assertEquals(2, ParallelRoutePlanner.strips(new RouteGenerator(1, 1, 100, 100)).length);
+        long[] strips = ParallelRoutePlanner.strips(new RouteGenerator(1, 1, 700, 701));
+        assertTrue(strips.length > 4, Arrays.toString(strips));
+        for (int i = 1; i < strips.length; i++) assertTrue(strips[i - 1] <= strips[i], Arrays.toString(strips));
+    }
+
+    @Test
+    void matchesSimulatorOnStripedRoutes() {
+        for (int h = 1; h <= 700; h += 99) {
+            for (int w = 1; w <= 700; w += 37) {
+                assertMatchesSimulator(1.3, 0.7, h * 1.3 - 0.2, w * 0.7 - 0.1);
+            }
+        }
+    }
+
+    @Test
+    void matchesSimulatorOnRandomFields() {
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            double photoHeight = 0.05 + random.nextDouble() * 40, photoWidth = 0.05 + random.nextDouble() * 40;
+            double fieldHeight = photoHeight * (200 + random.nextInt(500)) * random.nextDouble();
+            double fieldWidth = photoWidth * (200 + random.nextInt(500)) * random.nextDouble();
+            assertMatchesSimulator(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        }
+    }
+
+    private static void assertMatchesSimulator(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        String field = "photo " + photoHeight + "x" + photoWidth + ", field " + fieldHeight + "x" + fieldWidth;
+        Route expected = RoutePlanner.simulateRoute(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        Route actual = new ParallelRoutePlanner(pool).plan(new RouteGenerator(photoHeight, photoWidth, fieldHeight, fieldWidth));
+        assertEquals(expected.size(), actual.size(), field);
+        assertArrayEquals(
+                Arrays.copyOf(expected.getCoordinates(), expected.size() * 2),
+                Arrays.copyOf(actual.getCoordinates(), actual.size() * 2),
+                field
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlannerCliTest {
+    private static final String[] MISSION = {"35", "24", "36", "120", "500", "500"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesTheRoutePlannedForTheMission() throws IOException {
+        Path output = dir.resolve("route.txt");
+        PlannerCli.main(with(output));
+
+        StringBuilder expected = new StringBuilder();
+        double[] params = Arrays.stream(MISSION).mapToDouble(Double::parseDouble).toArray();
+        RoutePlanner.printRoute(RoutePlanner.plan(params[0], params[1], params[2], params[3], params[4], params[5]), expected);
+        assertEquals(expected.toString(), new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void plansWithoutLoadingJavaFxOrAwt() throws Exception {
+        Path output = dir.resolve("route.txt");
+        List<String> command = Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-verbose:class", "-cp", System.getProperty("java.class.path"), PlannerCli.class.getName()
+        );
+        Process process = new ProcessBuilder(concat(command, with(output))).redirectErrorStream(true).start();
+        List<String> loaded;
+        try (java.io.BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            loaded = reader.lines().collect(Collectors.toList());
+        }
+        assertEquals(0, process.waitFor());
+        assertTrue(Files.size(output) > 0);
+        List<String> toolkit = loaded.stream()
+                .filter(line -> line.contains(" javafx.") || line.contains(" com.sun.javafx.") || line.contains(" java.awt."))
+                .collect(Collectors.toList());
+        assertTrue(toolkit.isEmpty(), () -> "Toolkit classes loaded: " + toolkit);
+    }
+
+    private static String[] with(Path output) {
+        String[] args = Arrays.copyOf(MISSION, MISSION.length + 1);
+        args[MISSION.length] = output.toString();
+        return args;
+    }
+
+    private static List<String> concat(List<String> command, String[] args) {
+        List<String> all = new ArrayList<>(command);
+        all.addAll(Arrays.asList(args));
+        return all;
+    }
+}
@@ -0,0 +1,259 @@
+package sample;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ReplannerTest {
+    private static final double FOCUS = 0.035, CENSOR_HEIGHT = 0.0156, CENSOR_WIDTH = 0.0235;
+    private static final double FIELD = 300;
+
+    private final StubRenderer renderer = new StubRenderer();
+    private ExecutorService fx;
+    private Replanner replanner;
+
+    @BeforeEach
+    void setUp() {
+        fx = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx");
+            thread.setDaemon(true);
+            return thread;
+        });
+        GeoProjection projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), FIELD, FIELD);
+        replanner = new Replanner(renderer, projection, 50, fx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replanner.close();
+        fx.shutdownNow();
+    }
+
+    @Test
+    void dragIsCoalescedIntoTheLastRequest() throws Exception {
+        for (int step = 0; step < 20; step++) {
+            replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5 + step * 0.01, FIELD, FIELD);
+            Thread.sleep(5);
+        }
+        awaitApplied(1);
+        assertEquals(20, replanner.getRequests());
+        assertTrue(replanner.getPlans() < replanner.getRequests(), replanner.getPlans() + " plans for 20 requests");
+
+        // Re-requesting the last drag step must change nothing, so the drawing already shows it.
+        long changes = fx.submit(() -> renderer.changes).get();
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5 + 19 * 0.01, FIELD, FIELD);
+        awaitApplied(fx.submit(replanner::getApplied).get() + 1);
+        assertEquals(changes, (long) fx.submit(() -> renderer.changes).get());
+    }
+
+    @Test
+    void identicalReplanKeepsEveryChunk() throws Exception {
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5, FIELD, FIELD);
+        awaitApplied(1);
+        long kept = fx.submit(() -> replanner.getDrawing().getKeptChunks()).get(), changes = fx.submit(() -> renderer.changes).get();
+
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5, FIELD, FIELD);
+        awaitApplied(2);
+        assertTrue(fx.submit(() -> replanner.getDrawing().getKeptChunks()).get() > kept);
+        assertEquals(changes, (long) fx.submit(() -> renderer.changes).get());
+        assertEquals(0, (long) fx.submit(() -> renderer.boundsUpdates).get());
+    }
+
+    @Test
+    void fieldResizeUpdatesTheBoundsOnce() throws Exception {
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5, FIELD, FIELD);
+        awaitApplied(1);
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5, FIELD, FIELD * 1.2);
+        awaitApplied(2);
+        assertEquals(1, (long) fx.submit(() -> renderer.boundsUpdates).get());
+    }
+
+    @Test
+    void slicesOnlySwapPreparedItems() throws Exception {
+        // About 100k waypoints: the FX thread must never simplify geometry itself, and each slice stops near its budget.
+        GeoProjection projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), 900, 900);
+        try (Replanner large = new Replanner(renderer, projection, 0, fx)) {
+            for (int i = 0; i < 3; i++) {
+                large.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, 5 + i * 0.01, 900, 900);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+                while (fx.submit(large::getApplied).get() < i + 1) {
+                    if (System.nanoTime() > deadline) fail("Re-plan " + i + " never applied");
+                    Thread.sleep(5);
+                }
+            }
+            assertEquals(0, (long) fx.submit(() -> renderer.rawGeometry).get());
+            long maxSlice = fx.submit(large::getMaxSliceNanos).get();
+            assertTrue(maxSlice < Replanner.SLICE_NANOS + TimeUnit.MILLISECONDS.toNanos(10), "Longest slice " + maxSlice / 1e6 + " ms");
+        }
+    }
+
+    private void awaitApplied(long applied) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (fx.submit(replanner::getApplied).get() < applied) {
+            if (System.nanoTime() > deadline) fail("Re-plan " + applied + " never applied");
+            Thread.sleep(5);
+        }
+    }
+
+    private static class StubRenderer implements MapRenderer {
+        private long nextItem = 0, changes = 0, boundsUpdates = 0, rawGeometry = 0;
+
+        @Override
+        public void init(MapView.LatLng center, MapView.LatLngBounds bounds, double zoom) {
+        }
+
+        @Override
+        public void onload(Runnable callback) {
+            callback.run();
+        }
+
+        @Override
+        public void setBounds(MapView.LatLngBounds bounds) {
+            boundsUpdates++;
+        }
+
+        @Override
+        public void setLineWidth(long lineWidth) {
+        }
+
+        @Override
+        public void setStrokePattern(MapView.Pattern strokePattern) {
+        }
+
+        @Override
+        public void setFillPattern(MapView.Pattern fillPattern) {
+        }
+
+        @Override
+        public MapView.Coords unitCoordsToPixels(MapView.Coords units) {
+            return units;
+        }
+
+        @Override
+        public void fillRect(MapView.Coords coords, MapView.Bounds bounds) {
+        }
+
+        @Override
+        public void clearRect(MapView.Coords coords, MapView.Bounds bounds) {
+        }
+
+        @Override
+        public void strokeRect(MapView.Coords coords, MapView.Bounds bounds) {
+        }
+
+        @Override
+        public void fillText(CharSequence text, MapView.Coords coords) {
+        }
+
+        @Override
+        public void strokeText(CharSequence text, MapView.Coords coords) {
+        }
+
+        @Override
+        public void beginPath() {
+        }
+
+        @Override
+        public void closePath() {
+        }
+
+        @Override
+        public void fillPath() {
+        }
+
+        @Override
+        public void strokePath() {
+        }
+
+        @Override
+        public void moveTo(MapView.Coords coords) {
+        }
+
+        @Override
+        public void lineTo(MapView.Coords coords) {
+        }
+
+        @Override
+        public void arcPathPixel(MapView.Coords coords, long r, double startAngle, double endAngle) {
+        }
+
+        @Override
+        public void drawPolyline(double[] xy, int from, int to) {
+        }
+
+        @Override
+        public void drawMarkers(double[] xy, int from, int to, long r) {
+        }
+
+        @Override
+        public long addPolyline(double[] xy, int from, int to) {
+            rawGeometry++;
+            return addPolyline(LevelOfDetail.polyline(xy, from, to));
+        }
+
+        @Override
+        public long addMarkers(double[] xy, int from, int to, long r) {
+            rawGeometry++;
+            return addMarkers(LevelOfDetail.markers(xy, from, to), r);
+        }
+
+        @Override
+        public long addPolyline(LevelOfDetail.Detail polyline) {
+            changes++;
+            return nextItem++;
+        }
+
+        @Override
+        public long addMarkers(LevelOfDetail.Detail markers, long r) {
+            changes++;
+            return nextItem++;
+        }
+
+        @Override
+        public long addRect(MapView.Coords coords, MapView.Bounds bounds) {
+            changes++;
+            return nextItem++;
+        }
+
+        @Override
+        public long addText(CharSequence text, MapView.Coords coords) {
+            changes++;
+            return nextItem++;
+        }
+
+        @Override
+        public void removeItem(long id) {
+            changes++;
+        }
+
+        @Override
+        public void clearItems() {
+            changes++;
+        }
+
+        @Override
+        public void setRouteIndex(RouteIndex routeIndex) {
+        }
+
+        @Override
+        public int waypointAt(double x, double y, double radiusPixels) {
+            return -1;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
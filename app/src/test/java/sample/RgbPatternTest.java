@@ -0,0 +1,22 @@
+package sample;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RgbPatternTest {
+    @Test
+    void encodesTheSameColorForBothRenderers() {
+        MapView.RgbPattern pattern = new MapView.RgbPattern(255, 8, 160);
+        assertEquals("\"#FF08A0\"", pattern.toJS());
+        assertEquals(Color.rgb(255, 8, 160), pattern.toPaint());
+    }
+
+    @Test
+    void rejectsComponentsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new MapView.RgbPattern(256, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MapView.RgbPattern(0, -1, 0));
+    }
+}
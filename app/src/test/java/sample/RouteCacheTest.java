@@ -0,0 +1,122 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteCacheTest {
+    private static final double FIELD = 300;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void hitReturnsThePreparedFrame() {
+        RouteCache cache = new RouteCache(64L * 1024 * 1024);
+        AtomicInteger planned = new AtomicInteger();
+        RouteDrawer.Frame first = get(cache, 20, planned);
+        RouteDrawer.Frame second = get(cache, 20, planned);
+        assertSame(first, second);
+        assertEquals(1, planned.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(first.getBytes() + 256, cache.getBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPastTheByteBound() {
+        AtomicInteger planned = new AtomicInteger();
+        long weight = prepare(20).getBytes() + 256;
+        RouteCache cache = new RouteCache(weight * 2 + weight / 2);
+        get(cache, 20, planned);
+        get(cache, 21, planned);
+        get(cache, 20, planned);
+        get(cache, 22, planned);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getBytes() <= weight * 2 + weight / 2, cache.toString());
+
+        get(cache, 20, planned);
+        assertEquals(3, planned.get());
+        get(cache, 21, planned);
+        assertEquals(4, planned.get());
+    }
+
+    @Test
+    void persistedFramesSurviveANewInstance() {
+        AtomicInteger planned = new AtomicInteger();
+        RouteDrawer.Frame original = get(new RouteCache(64L * 1024 * 1024, dir, 64L * 1024 * 1024), 20, planned);
+
+        RouteCache reopened = new RouteCache(64L * 1024 * 1024, dir, 64L * 1024 * 1024);
+        assertTrue(reopened.getDiskBytes() > 0);
+        RouteDrawer.Frame loaded = get(reopened, 20, planned);
+        assertEquals(1, planned.get());
+        assertEquals(1, reopened.getDiskHits());
+        assertEquals(original.getChunkCount(), loaded.getChunkCount());
+        assertEquals(original.getBytes(), loaded.getBytes());
+        RouteIndex expected = original.getIndex(), actual = loaded.getIndex();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+        }
+    }
+
+    @Test
+    void corruptFileIsReplanned() throws IOException {
+        AtomicInteger planned = new AtomicInteger();
+        get(new RouteCache(64L * 1024 * 1024, dir, 64L * 1024 * 1024), 20, planned);
+        for (Path file : routes()) {
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        }
+
+        RouteCache reopened = new RouteCache(64L * 1024 * 1024, dir, 64L * 1024 * 1024);
+        assertNotNull(get(reopened, 20, planned));
+        assertEquals(2, planned.get());
+        assertEquals(0, reopened.getDiskHits());
+        assertEquals(1, reopened.getMisses());
+    }
+
+    @Test
+    void cancelledPlanningCachesNothing() throws IOException {
+        RouteCache cache = new RouteCache(64L * 1024 * 1024, dir, 64L * 1024 * 1024);
+        RouteDrawer.Frame frame = cache.get(20, 20, FIELD, FIELD,
+                () -> RouteDrawer.prepare(new RouteGenerator(20, 20, FIELD, FIELD), FIELD, FIELD, () -> true));
+        assertNull(frame);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertTrue(routes().isEmpty());
+    }
+
+    private List<Path> routes() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".route")).collect(Collectors.toList());
+        }
+    }
+
+    private static RouteDrawer.Frame get(RouteCache cache, double photo, AtomicInteger planned) {
+        return cache.get(photo, photo, FIELD, FIELD, () -> {
+            planned.incrementAndGet();
+            return prepare(photo);
+        });
+    }
+
+    private static RouteDrawer.Frame prepare(double photo) {
+        return RouteDrawer.prepare(new RouteGenerator(photo, photo, FIELD, FIELD), FIELD, FIELD, () -> false);
+    }
+}
@@ -0,0 +1,126 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteExporterTest {
+    private static final int CELLS = 200;
+
+    private final RouteGenerator route = new RouteGenerator(1, 1, CELLS, CELLS);
+    private final GeoProjection projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), CELLS, CELLS);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fixedMatchesStringFormat() throws IOException {
+        double[] values = {0, -0.0, 1, -1, 0.5, 0.05, -0.0000000499, 50.4669771234567, -31.21143849, 123456.995, 9.9999999, 1e-12};
+        for (double value : values) {
+            for (int decimals : new int[] {0, 2, 7}) {
+                StringBuilder out = new StringBuilder();
+                try (RouteExporter.ChannelWriter writer = new RouteExporter.ChannelWriter(new WritableByteChannel() {
+                    @Override
+                    public int write(ByteBuffer src) {
+                        int count = src.remaining();
+                        while (src.hasRemaining()) out.append((char) src.get());
+                        return count;
+                    }
+
+                    @Override
+                    public boolean isOpen() {
+                        return true;
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                })) {
+                    writer.fixed(value, decimals);
+                }
+                String expected = String.format(Locale.US, "%." + decimals + "f", value);
+                if (expected.startsWith("-") && Double.parseDouble(expected) == 0) expected = expected.substring(1);
+                assertEquals(expected, out.toString(), value + " with " + decimals + " decimals");
+            }
+        }
+    }
+
+    @Test
+    void float64RoundTripIsExact() throws IOException {
+        Path path = dir.resolve("route64.bin");
+        RouteExporter.writeBinary(route, CELLS, CELLS, path, false);
+        assertArrayEquals(route.toRoute().getCoordinates(), RouteExporter.readBinary(path).getCoordinates());
+    }
+
+    @Test
+    void float32RoundTripStaysWithinAMillimetre() throws IOException {
+        Path path = dir.resolve("route32.bin");
+        RouteExporter.writeBinary(route, CELLS, CELLS, path, true);
+        assertArrayEquals(route.toRoute().getCoordinates(), RouteExporter.readBinary(path).getCoordinates(), 1e-3);
+
+        RouteExporter.Header header = RouteExporter.readHeader(path);
+        assertEquals(route.size(), header.getCount());
+        assertTrue(header.isFloat32());
+        assertEquals(CELLS, header.getFieldWidth());
+        assertEquals(CELLS, header.getFieldHeight());
+    }
+
+    @Test
+    void missionListsEveryWaypointInLatLng() throws IOException {
+        Path path = dir.resolve("route.waypoints");
+        try (FileChannel out = open(path)) {
+            RouteExporter.exportMission(route, projection, 120, out);
+        }
+        List<String> lines = Files.readAllLines(path, StandardCharsets.US_ASCII);
+        assertEquals(route.size() + 2, lines.size());
+        route.forEach((i, x, y) -> {
+            String[] fields = lines.get((int) i + 2).split("\t");
+            assertEquals(i + 1, Long.parseLong(fields[0]));
+            assertEquals(projection.latitude(y), Double.parseDouble(fields[8]), 1e-7);
+            assertEquals(projection.longitude(x), Double.parseDouble(fields[9]), 1e-7);
+            assertEquals("120.00", fields[10]);
+        });
+    }
+
+    @Test
+    void geoJsonAndKmlCarryEveryWaypoint() throws IOException {
+        Path geoJson = dir.resolve("route.geojson"), kml = dir.resolve("route.kml");
+        try (FileChannel out = open(geoJson)) {
+            RouteExporter.exportGeoJson(route, projection, out);
+        }
+        try (FileChannel out = open(kml)) {
+            RouteExporter.exportKml(route, projection, 120, out);
+        }
+        String json = new String(Files.readAllBytes(geoJson), StandardCharsets.US_ASCII);
+        assertTrue(json.startsWith("{\"type\":\"Feature\",\"properties\":{\"waypoints\":" + route.size() + "}"));
+        assertTrue(json.endsWith("]}}\n"));
+        assertEquals(route.size(), count(json, "[") - 1);
+
+        String coordinates = new String(Files.readAllBytes(kml), StandardCharsets.US_ASCII).split("<coordinates>\n|\n</coordinates>")[1];
+        assertEquals(route.size(), coordinates.trim().split(" ").length);
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) count++;
+        return count;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
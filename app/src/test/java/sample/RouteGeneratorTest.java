@@ -0,0 +1,100 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RouteGeneratorTest {
+    private static final double[] PHOTO_SIZES = {1, 0.5, 3.7, 12.3, 0.1};
+    private static final double[] REMAINDERS = {0, 0.25, 0.5, 0.999};
+    private static final int MAX_CELLS = 24;
+
+    @Test
+    void matchesSimulatorForEveryOddEvenCombination() {
+        for (double photoHeight : PHOTO_SIZES) {
+            for (double photoWidth : PHOTO_SIZES) {
+                for (int h = 0; h <= MAX_CELLS; h++) {
+                    for (int w = 0; w <= MAX_CELLS; w++) {
+                        for (double remainder : REMAINDERS) {
+                            double fieldHeight = Math.max(h - remainder, 0) * photoHeight;
+                            double fieldWidth = Math.max(w - remainder, 0) * photoWidth;
+                            assertMatchesSimulator(photoHeight, photoWidth, fieldHeight, fieldWidth);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesSimulatorOnRandomFields() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            double photoHeight = 0.05 + random.nextDouble() * 40, photoWidth = 0.05 + random.nextDouble() * 40;
+            double fieldHeight = photoHeight * random.nextInt(300) * (random.nextBoolean() ? 1 : random.nextDouble());
+            double fieldWidth = photoWidth * random.nextInt(300) * (random.nextBoolean() ? 1 : random.nextDouble());
+            assertMatchesSimulator(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        }
+    }
+
+    @Test
+    void accessorsAgreeWithFill() {
+        for (int h : new int[] {1, 2, 3, 8, 9, 600, 601}) {
+            for (int w : new int[] {1, 2, 3, 8, 9, 600, 601}) {
+                RouteGenerator generator = new RouteGenerator(1.3, 0.7, h * 1.3 - 0.2, w * 0.7 - 0.1);
+                Route route = generator.toRoute();
+                double[] coordinates = route.getCoordinates();
+                int size = route.size();
+                for (int i = 0; i < size; i++) {
+                    assertEquals(route.getX(i), generator.getX(i), "x of waypoint " + i);
+                    assertEquals(route.getY(i), generator.getY(i), "y of waypoint " + i);
+                }
+
+                int from = size / 3, to = size - size / 4;
+                double[] part = new double[(to - from) * 2];
+                generator.fill(part, from, to);
+                assertArrayEquals(Arrays.copyOfRange(coordinates, from * 2, to * 2), part);
+
+                PrimitiveIterator.OfDouble iterator = generator.iterator();
+                for (int i = 0; i < size * 2; i++) assertEquals(coordinates[i], iterator.nextDouble());
+                assertFalse(iterator.hasNext());
+
+                generator.forEach(from, to, (i, x, y) -> {
+                    assertEquals(route.getX((int) i), x);
+                    assertEquals(route.getY((int) i), y);
+                });
+            }
+        }
+    }
+
+    @Test
+    void everyWindowOfALargeRouteMatchesTheFullFill() {
+        RouteGenerator generator = new RouteGenerator(1.1, 0.9, 1001 * 1.1, 1001 * 0.9);
+        double[] full = generator.toRoute().getCoordinates();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt((int) generator.size()), to = from + random.nextInt((int) generator.size() - from + 1);
+            double[] part = new double[(to - from) * 2];
+            generator.fill(part, from, to);
+            assertArrayEquals(Arrays.copyOfRange(full, from * 2, to * 2), part, "window [" + from + ", " + to + ")");
+        }
+    }
+
+    private static void assertMatchesSimulator(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        String field = "photo " + photoHeight + "x" + photoWidth + ", field " + fieldHeight + "x" + fieldWidth;
+        Route expected = RoutePlanner.simulateRoute(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        Route actual = new RouteGenerator(photoHeight, photoWidth, fieldHeight, fieldWidth).toRoute();
+        assertEquals(expected.size(), actual.size(), field);
+        assertArrayEquals(
+                Arrays.copyOf(expected.getCoordinates(), expected.size() * 2),
+                Arrays.copyOf(actual.getCoordinates(), actual.size() * 2),
+                field
+        );
+    }
+}
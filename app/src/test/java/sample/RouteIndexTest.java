@@ -0,0 +1,89 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteIndexTest {
+    private static final double SCALE_X = 800, SCALE_Y = 600;
+
+    private final RouteGenerator route = new RouteGenerator(1, 1, 150, 150);
+    private final RouteIndex index = RouteIndex.build(route, 150, 150);
+    private final double[] points = points(new Random(42), 500);
+
+    @Test
+    void indexesEveryWaypoint() {
+        assertEquals(route.size(), index.size());
+        route.forEach((i, x, y) -> {
+            assertEquals(x / 150, index.getX((int) i));
+            assertEquals(1 - y / 150, index.getY((int) i));
+        });
+    }
+
+    @Test
+    void nearestMatchesLinearScan() {
+        for (int q = 0; q < points.length / 2; q++) {
+            int nearest = index.nearest(points[q * 2], points[q * 2 + 1], SCALE_X, SCALE_Y);
+            int expected = linearNearest(points[q * 2], points[q * 2 + 1]);
+            assertEquals(distance(expected, q), distance(nearest, q), "Nearest waypoint differs for query " + q);
+        }
+    }
+
+    @Test
+    void hitTestMatchesNearestDistance() {
+        int hits = 0;
+        for (int q = 0; q < points.length / 2; q++) {
+            int hit = index.hitTest(points[q * 2], points[q * 2 + 1], 10, SCALE_X, SCALE_Y);
+            if (hit >= 0) hits++;
+            assertEquals(distance(linearNearest(points[q * 2], points[q * 2 + 1]), q) <= 10, hit >= 0, "Hit test differs for query " + q);
+        }
+        assertTrue(hits > 0);
+    }
+
+    @Test
+    void viewportQueryMatchesLinearScan() {
+        for (int q = 0; q < points.length / 2; q++) {
+            double x = points[q * 2], y = points[q * 2 + 1];
+            assertArrayEquals(linearQuery(x, y, x + 0.05, y + 0.05), index.query(x, y, x + 0.05, y + 0.05), "Viewport query differs for query " + q);
+        }
+    }
+
+    // Queries cover the route and a margin around it, where nearest still has to find the closest edge waypoint.
+    private static double[] points(Random random, int queries) {
+        double[] points = new double[queries * 2];
+        for (int i = 0; i < points.length; i++) points[i] = i < queries ? random.nextDouble() : random.nextDouble() * 1.2 - 0.1;
+        return points;
+    }
+
+    private double distance(int i, int q) {
+        return Math.hypot((index.getX(i) - points[q * 2]) * SCALE_X, (index.getY(i) - points[q * 2 + 1]) * SCALE_Y);
+    }
+
+    private int linearNearest(double x, double y) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < index.size(); i++) {
+            double distance = Math.hypot((index.getX(i) - x) * SCALE_X, (index.getY(i) - y) * SCALE_Y);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int[] linearQuery(double minX, double minY, double maxX, double maxY) {
+        int[] found = new int[index.size()];
+        int count = 0;
+        for (int i = 0; i < index.size(); i++) {
+            double x = index.getX(i), y = index.getY(i);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) found[count++] = i;
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
@@ -0,0 +1,29 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutePlannerTest {
+    @Test
+    void footprintKeepsSensorAspectAndScalesWithAltitude() {
+        double[] footprint = RoutePlanner.calculate(35, 24, 36, 120);
+        assertEquals(24.0 / 36, footprint[0] / footprint[1], 1e-12);
+        assertEquals(Math.hypot(24, 36) * 120 / 35, Math.hypot(footprint[0], footprint[1]), 1e-9);
+
+        double[] higher = RoutePlanner.calculate(35, 24, 36, 240);
+        assertEquals(2 * footprint[0], higher[0], 1e-9);
+        assertEquals(2 * footprint[1], higher[1], 1e-9);
+    }
+
+    @Test
+    void invertCoordsSwapsAxesInPlace() {
+        Route route = RoutePlanner.simulateRoute(1, 2, 3, 8);
+        double[] before = route.getCoordinates().clone();
+        Route inverted = RoutePlanner.invertCoords(route);
+        for (int i = 0; i < inverted.size(); i++) {
+            assertEquals(before[i * 2], inverted.getY(i));
+            assertEquals(before[i * 2 + 1], inverted.getX(i));
+        }
+    }
+}
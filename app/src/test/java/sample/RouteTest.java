@@ -0,0 +1,52 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteTest {
+    @Test
+    void tracksBoundsAsWaypointsAreAdded() {
+        Route route = new Route(2);
+        assertEquals(Double.POSITIVE_INFINITY, route.getMinX());
+        assertEquals(Double.NEGATIVE_INFINITY, route.getMaxY());
+        route.add(3, -1);
+        route.add(-2, 5);
+        route.add(4, 2);
+        assertBounds(route, -2, -1, 4, 5);
+
+        route.swapAxes();
+        assertBounds(route, -1, -2, 5, 4);
+
+        route.rotate(Math.PI, -1);
+        assertBounds(route, -5, -2, 1, 4);
+        assertBounds(new Route(route.getCoordinates()), -5, -2, 1, 4);
+    }
+
+    @Test
+    void exposesOnlyTheWaypoints() {
+        Route route = new Route(16);
+        route.add(1, 2);
+        route.add(3, 4);
+        assertArrayEquals(new double[] {1, 2, 3, 4}, route.getCoordinates());
+        route.getCoordinates()[0] = 9;
+        assertEquals(1, route.getX(0));
+
+        DoubleBuffer view = route.getCoordinateView();
+        assertEquals(4, view.remaining());
+        assertEquals(3, view.get(2));
+        assertThrows(ReadOnlyBufferException.class, () -> view.put(0, 9));
+    }
+
+    private static void assertBounds(Route route, double minX, double minY, double maxX, double maxY) {
+        assertEquals(minX, route.getMinX(), 1e-12);
+        assertEquals(minY, route.getMinY(), 1e-12);
+        assertEquals(maxX, route.getMaxX(), 1e-12);
+        assertEquals(maxY, route.getMaxY(), 1e-12);
+    }
+}
@@ -0,0 +1,95 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SweepOptimizerTest {
+    private static final double PHOTO_HEIGHT = 20, PHOTO_WIDTH = 30;
+    private static final double METRES_PER_TURN = 40, METRES_PER_PHOTO = 0;
+
+    private final SweepOptimizer optimizer = new SweepOptimizer(PHOTO_HEIGHT, PHOTO_WIDTH, METRES_PER_TURN, METRES_PER_PHOTO);
+
+    @Test
+    void estimateMatchesThePlannedRoute() {
+        for (double[] ring : new double[][] {strip(), field(2000)}) {
+            SweepOptimizer.Result result = optimizer.optimize(ring[0], ring[1], 360, ring);
+            assertEquals(result.getRoute().size() - 1, result.getBest().getEstimate().getPhotos());
+        }
+    }
+
+    @Test
+    void bestAngleIsNoWorseThanTheAxisSweep() {
+        for (double[] ring : new double[][] {strip(), field(2000)}) {
+            SweepOptimizer.Result result = optimizer.optimize(ring[0], ring[1], 360, ring);
+            assertTrue(result.getBest().getCost() <= optimizer.evaluate(0, ring[0], ring[1], ring).getCost());
+        }
+    }
+
+    @Test
+    void sweepsAlongARotatedStrip() {
+        double[] ring = strip();
+        Route axis = new CoveragePlanner(PHOTO_HEIGHT, PHOTO_WIDTH).plan(ring).getRoute();
+        Route best = optimizer.optimize(ring[0], ring[1], 360, ring).getRoute();
+        assertTrue(turns(best) * 2 < turns(axis), turns(best) + " turns at the best angle, " + turns(axis) + " along the axes");
+    }
+
+    @Test
+    void resultDoesNotDependOnThreadCount() {
+        double[] ring = field(2000);
+        ForkJoinPool single = new ForkJoinPool(1), several = new ForkJoinPool(4);
+        try {
+            SweepOptimizer.Result a = new SweepOptimizer(PHOTO_HEIGHT, PHOTO_WIDTH, METRES_PER_TURN, METRES_PER_PHOTO, single).optimize(0, 0, 90, ring);
+            SweepOptimizer.Result b = new SweepOptimizer(PHOTO_HEIGHT, PHOTO_WIDTH, METRES_PER_TURN, METRES_PER_PHOTO, several).optimize(0, 0, 90, ring);
+            assertEquals(a.getBest().getAngle(), b.getBest().getAngle());
+            assertEquals(a.getBest().getCorner(), b.getBest().getCorner());
+            assertArrayEquals(a.getRoute().getCoordinates(), b.getRoute().getCoordinates());
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsZeroAngles() {
+        assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(0, 0, 0, strip()));
+    }
+
+    private static int turns(Route route) {
+        int turns = 0;
+        for (int i = 1; i + 1 < route.size(); i++) {
+            double ax = route.getX(i) - route.getX(i - 1), ay = route.getY(i) - route.getY(i - 1);
+            double bx = route.getX(i + 1) - route.getX(i), by = route.getY(i + 1) - route.getY(i);
+            if (Math.abs(ax * by - ay * bx) > 1e-3 * Math.hypot(ax, ay) * Math.hypot(bx, by) || ax * bx + ay * by < 0) turns++;
+        }
+        return turns;
+    }
+
+    // An 800x250 m strip rotated by 30 degrees.
+    private static double[] strip() {
+        double[] ring = CoveragePlanner.rectangle(250, 800);
+        double cos = Math.cos(Math.toRadians(30)), sin = Math.sin(Math.toRadians(30));
+        double[] out = new double[ring.length];
+        for (int i = 0; i < ring.length; i += 2) {
+            out[i] = ring[i] * cos - ring[i + 1] * sin;
+            out[i + 1] = ring[i] * sin + ring[i + 1] * cos;
+        }
+        return out;
+    }
+
+    private static double[] field(int vertices) {
+        double[] ring = new double[vertices * 2];
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = 400 + 150 * Math.sin(3 * angle) + 50 * Math.sin(7 * angle);
+            ring[i * 2] = 600 + 1.6 * radius * Math.cos(angle + 0.4);
+            ring[i * 2 + 1] = 600 + 0.7 * radius * Math.sin(angle);
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,148 @@
+package sample;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileCacheTest {
+    private static final long CAPACITY = 4L * TileCache.SLOT_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void persistsTilesAcrossReopen() throws IOException {
+        Path file = dir.resolve("tiles.db");
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            for (int x = 0; x < 3; x++) assertTrue(cache.put(TileCache.key(5, x, 1), tile("z=5&x=" + x)));
+        }
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            assertEquals(3, cache.size());
+            for (int x = 0; x < 3; x++) assertArrayEquals(tile("z=5&x=" + x), cache.get(TileCache.key(5, x, 1)));
+            assertNull(cache.get(TileCache.key(5, 3, 1)));
+            assertEquals(3, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        }
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedTile() throws IOException {
+        try (TileCache cache = new TileCache(dir.resolve("small.db"), CAPACITY)) {
+            for (int x = 0; x < 4; x++) cache.put(TileCache.key(1, x, 0), tile("z=1&x=" + x));
+            cache.get(TileCache.key(1, 0, 0));
+            cache.put(TileCache.key(1, 4, 0), tile("z=1&x=4"));
+            assertFalse(cache.contains(TileCache.key(1, 1, 0)));
+            assertTrue(cache.contains(TileCache.key(1, 0, 0)));
+            assertEquals(1, cache.getEvictions());
+            assertEquals(4, cache.capacity());
+        }
+    }
+
+    @Test
+    void rejectsTilesThatDoNotFitASlot() throws IOException {
+        try (TileCache cache = new TileCache(dir.resolve("tiles.db"), CAPACITY)) {
+            assertFalse(cache.put("big", new byte[TileCache.SLOT_SIZE]));
+            assertFalse(cache.put("big", new byte[TileCache.MAX_TILE_SIZE + 1]));
+            assertTrue(cache.put("fits", new byte[TileCache.MAX_TILE_SIZE]));
+            assertEquals(TileCache.MAX_TILE_SIZE, cache.get("fits").length);
+            assertEquals(2, cache.getRejected());
+            assertEquals(0, cache.getEvictions());
+        }
+    }
+
+    @Test
+    void neverServesAnotherTileAfterACrash() throws IOException {
+        Path file = dir.resolve("tiles.db");
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            for (int x = 0; x < 4; x++) cache.put(TileCache.key(1, x, 0), tile("z=1&x=" + x));
+            cache.flush();
+            cache.put(TileCache.key(1, 4, 0), tile("z=1&x=4"));
+            cache.put(TileCache.key(1, 2, 0), tile("z=1&x=2, refreshed"));
+            Path crashed = snapshot(file);
+
+            try (TileCache reopened = new TileCache(crashed, CAPACITY)) {
+                assertNull(reopened.get(TileCache.key(1, 0, 0)));
+                assertFalse(reopened.contains(TileCache.key(1, 0, 0)));
+                assertArrayEquals(tile("z=1&x=4"), reopened.get(TileCache.key(1, 4, 0)));
+                assertArrayEquals(tile("z=1&x=2, refreshed"), reopened.get(TileCache.key(1, 2, 0)));
+                assertArrayEquals(tile("z=1&x=1"), reopened.get(TileCache.key(1, 1, 0)));
+                assertEquals(4, reopened.size());
+            }
+        }
+    }
+
+    @Test
+    void treatsATornWriteAsAMiss() throws IOException {
+        Path file = dir.resolve("tiles.db");
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            cache.put(TileCache.key(1, 0, 0), tile("z=1&x=0"));
+            cache.put(TileCache.key(1, 1, 0), tile("z=1&x=1"));
+        }
+        try (FileChannel data = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            data.write(ByteBuffer.wrap(new byte[1024]), TileCache.SLOT_SIZE + 4096);
+        }
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            assertArrayEquals(tile("z=1&x=0"), cache.get(TileCache.key(1, 0, 0)));
+            assertNull(cache.get(TileCache.key(1, 1, 0)));
+            assertFalse(cache.contains(TileCache.key(1, 1, 0)));
+            for (int x = 2; x < 5; x++) assertTrue(cache.put(TileCache.key(1, x, 0), tile("z=1&x=" + x)));
+            assertEquals(0, cache.getEvictions());
+        }
+    }
+
+    @Test
+    void ignoresADamagedIndex() throws IOException {
+        Path file = dir.resolve("tiles.db");
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            cache.put(TileCache.key(1, 0, 0), tile("z=1&x=0"));
+        }
+        Files.write(Paths.get(file + ".idx"), "1/0/0 x 7\n1/1/0 0 7\n1/0/0 9 12\ngarbage\n".getBytes(StandardCharsets.UTF_8));
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            assertEquals(1, cache.size());
+            assertFalse(cache.contains(TileCache.key(1, 1, 0)));
+            assertArrayEquals(tile("z=1&x=0"), cache.get(TileCache.key(1, 0, 0)));
+        }
+    }
+
+    @Test
+    void dropsEntriesFromAnUnrecognizedStore() throws IOException {
+        Path file = dir.resolve("tiles.db");
+        Files.write(file, tile("not a tile store"));
+        Files.write(Paths.get(file + ".idx"), "1/0/0 0 1000\n".getBytes(StandardCharsets.UTF_8));
+        try (TileCache cache = new TileCache(file, CAPACITY)) {
+            assertEquals(0, cache.size());
+            assertNull(cache.get(TileCache.key(1, 0, 0)));
+        }
+    }
+
+    private Path snapshot(Path file) throws IOException {
+        Path copy = dir.resolve("crashed.db");
+        Files.copy(file, copy);
+        Files.copy(Paths.get(file + ".idx"), Paths.get(copy + ".idx"));
+        return copy;
+    }
+
+    static byte[] tile(String seed) {
+        byte[] tile = new byte[20 * 1024];
+        long state = seed.hashCode();
+        for (int i = 0; i < tile.length; i++) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            tile[i] = (byte) (state >>> 56);
+        }
+        return tile;
+    }
+}
@@ -0,0 +1,95 @@
+package sample;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileServerTest {
+    @TempDir
+    Path dir;
+
+    private final AtomicLong upstreamRequests = new AtomicLong();
+    private HttpServer upstream;
+    private String template;
+    private TileCache cache;
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/", exchange -> {
+            upstreamRequests.incrementAndGet();
+            byte[] tile = TileCacheTest.tile(exchange.getRequestURI().getQuery());
+            exchange.sendResponseHeaders(200, tile.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(tile);
+            }
+        });
+        upstream.start();
+        template = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/?z={z}&x={x}&y={y}";
+        cache = new TileCache(dir.resolve("tiles.db"), 1024L * TileCache.SLOT_SIZE);
+    }
+
+    @AfterEach
+    void stopUpstream() throws IOException {
+        cache.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void seedingSkipsCachedTiles() throws IOException {
+        MapView.LatLngBounds bounds = new MapView.LatLngBounds(new MapView.LatLng(50.3, 30.4), new MapView.LatLng(50.6, 30.8));
+        long seeded = TileSeeder.seed(cache, template, bounds, 8, 12);
+        assertTrue(seeded > 0);
+        assertEquals(seeded, upstreamRequests.get());
+        assertEquals(0, TileSeeder.seed(cache, template, bounds, 8, 12));
+        assertEquals(seeded, upstreamRequests.get());
+    }
+
+    @Test
+    void servesCachedTilesWithoutTheUpstream() throws IOException {
+        TileServer server = new TileServer(cache, template);
+        try {
+            String local = server.getUrlTemplate();
+            byte[] first = TileSeeder.download(local, 14, 9580, 5540);
+            assertArrayEquals(TileCacheTest.tile("z=14&x=9580&y=5540"), first);
+            assertEquals(1, upstreamRequests.get());
+            for (int i = 0; i < 10; i++) assertArrayEquals(first, TileSeeder.download(local, 14, 9580, 5540));
+            assertEquals(1, upstreamRequests.get());
+
+            server.setUpstreamEnabled(false);
+            assertNull(TileSeeder.download(local, 3, 0, 0));
+            server.setUpstreamEnabled(true);
+            assertArrayEquals(TileCacheTest.tile("z=3&x=0&y=0"), TileSeeder.download(local, 3, 0, 0));
+            assertTrue(cache.contains(TileCache.key(3, 0, 0)));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void neverFetchesWithoutAConfiguredUpstream() throws IOException {
+        cache.put(TileCache.key(3, 1, 1), TileCacheTest.tile("cached"));
+        TileServer server = new TileServer(cache, null);
+        try {
+            assertArrayEquals(TileCacheTest.tile("cached"), server.tile(3, 1, 1));
+            assertNull(server.tile(3, 0, 0));
+            assertEquals(0, upstreamRequests.get());
+        } finally {
+            server.stop();
+        }
+    }
+}
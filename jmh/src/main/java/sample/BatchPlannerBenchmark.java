@@ -0,0 +1,67 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BatchPlannerBenchmark {
+    @Param({"10000"})
+    public int missions;
+
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    private final List<BatchPlanner.Mission> batch = new ArrayList<>();
+    private final StringBuilder out = new StringBuilder();
+    private BatchPlanner planner;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < missions; i++) {
+            batch.add(new BatchPlanner.Mission(
+                    "m" + i,
+                    0.024 + random.nextInt(4) * 0.011,
+                    0.0156, 0.0235,
+                    60 + random.nextInt(90),
+                    100 + random.nextDouble() * 900,
+                    100 + random.nextDouble() * 900
+            ));
+        }
+        planner = new BatchPlanner(threads, threads * 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        planner.close();
+    }
+
+    @Benchmark
+    public long run() throws IOException {
+        return planner.run(batch.iterator(), missions, result -> {
+            out.setLength(0);
+            result.write(out);
+        }, null).getWaypoints();
+    }
+}
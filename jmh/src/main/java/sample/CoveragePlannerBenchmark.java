@@ -0,0 +1,67 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CoveragePlannerBenchmark {
+    private static final double PHOTO_HEIGHT = 20, PHOTO_WIDTH = 30;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int vertices;
+
+    private final CoveragePlanner planner = new CoveragePlanner(PHOTO_HEIGHT, PHOTO_WIDTH);
+    private double[] ring;
+    private double height, width;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        ring = new double[vertices * 2];
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = 400 + 150 * Math.sin(3 * angle) + 50 * Math.sin(7 * angle) + random.nextDouble() * 5;
+            ring[i * 2] = 600 + radius * Math.cos(angle);
+            ring[i * 2 + 1] = 600 + radius * Math.sin(angle);
+            minX = Math.min(minX, ring[i * 2]);
+            maxX = Math.max(maxX, ring[i * 2]);
+            minY = Math.min(minY, ring[i * 2 + 1]);
+            maxY = Math.max(maxY, ring[i * 2 + 1]);
+        }
+        height = maxY - minY;
+        width = maxX - minX;
+    }
+
+    @Benchmark
+    public Route boundingBox() {
+        return new RouteGenerator(PHOTO_HEIGHT, PHOTO_WIDTH, height, width).toRoute();
+    }
+
+    @Benchmark
+    public CoveragePlanner.Plan plan() {
+        return planner.plan(ring);
+    }
+
+    @Benchmark
+    public CoveragePlanner.Estimate estimate() {
+        return planner.estimate(ring);
+    }
+}
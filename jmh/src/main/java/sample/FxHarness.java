@@ -0,0 +1,88 @@
+package sample;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Drives the FX toolkit from a benchmark thread. Forks run it headless with
+// -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw, pulsing at full speed.
+final class FxHarness {
+    static final int WIDTH = 800, HEIGHT = 600;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private FxHarness() {
+    }
+
+    static void start() throws Exception {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Platform.startup(() -> started.complete(null));
+        started.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Platform.setImplicitExit(false);
+    }
+
+    // Shows the renderer in its own stage, initializes it over the test field and waits for onload.
+    static Stage show(MapRenderer renderer) throws Exception {
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        Stage stage = call(() -> {
+            Stage created = new Stage();
+            created.setScene(new Scene((Parent) renderer, WIDTH, HEIGHT));
+            created.show();
+            renderer.init(
+                    new MapView.LatLng(50.475175, 31.222136),
+                    new MapView.LatLngBounds(
+                            new MapView.LatLng(50.466977, 31.211438),
+                            new MapView.LatLng(50.476175, 31.219136)
+                    ),
+                    17
+            );
+            renderer.onload(() -> loaded.complete(null));
+            return created;
+        });
+        loaded.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return stage;
+    }
+
+    static void close(Stage stage, MapRenderer renderer) throws Exception {
+        call(() -> {
+            renderer.dispose();
+            stage.close();
+            return null;
+        });
+        Platform.exit();
+    }
+
+    // Completes on the second pulse from now: the first one lays out and renders, the second proves it finished.
+    static long nextFrame() throws Exception {
+        CompletableFuture<Long> rendered = new CompletableFuture<>();
+        Platform.runLater(() -> new AnimationTimer() {
+            private int pulses = 0;
+
+            @Override
+            public void handle(long now) {
+                if (++pulses < 2) return;
+                stop();
+                rendered.complete(now);
+            }
+        }.start());
+        return rendered.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    static <T> T call(Callable<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,69 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GeoProjectionBenchmark {
+    private static final int ZOOM = 17;
+
+    @Param({"1000"})
+    public int cells;
+
+    private GeoProjection projection;
+    private double[] metres, out;
+
+    @Setup
+    public void setUp() {
+        projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), cells, cells);
+        metres = new RouteGenerator(1, 1, cells, cells).toRoute().getCoordinates();
+        out = new double[metres.length];
+    }
+
+    @Benchmark
+    public double perPointMercator() {
+        double sum = 0;
+        for (int i = 0; i < metres.length; i += 2) {
+            MapView.LatLng latLng = new MapView.LatLng(projection.latitude(metres[i + 1]), projection.longitude(metres[i]));
+            MapView.Coords coords = new MapView.Coords(
+                    TileSeeder.worldX(latLng.getLongitude(), ZOOM), TileSeeder.worldY(latLng.getLatitude(), ZOOM)
+            );
+            sum += coords.getX() + coords.getY();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] metresToLngLat() {
+        projection.metresToLngLat(metres, 0, out, 0, metres.length / 2);
+        return out;
+    }
+
+    @Benchmark
+    public double[] metresToUnits() {
+        projection.metresToUnits(metres, 0, out, 0, metres.length / 2);
+        return out;
+    }
+
+    @Benchmark
+    public double[] metresToPixels() {
+        projection.metresToPixels(metres, 0, out, 0, metres.length / 2, ZOOM);
+        return out;
+    }
+}
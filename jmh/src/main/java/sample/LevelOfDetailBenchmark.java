@@ -0,0 +1,53 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LevelOfDetailBenchmark {
+    @Param({"1000"})
+    public int cells;
+
+    private double[] xy;
+
+    @Setup
+    public void setUp() {
+        xy = new RouteGenerator(1, 1, cells, cells).toRoute().getCoordinates();
+        for (int i = 0; i < xy.length; i += 2) {
+            xy[i] = xy[i] / cells;
+            xy[i + 1] = 1 - xy[i + 1] / cells;
+        }
+    }
+
+    @Benchmark
+    public double[] removeCollinear() {
+        return LevelOfDetail.removeCollinear(xy, 0, xy.length / 2);
+    }
+
+    @Benchmark
+    public List<LevelOfDetail.Level> polylineLevels() {
+        return LevelOfDetail.polylineLevels(xy, 0, xy.length / 2);
+    }
+
+    @Benchmark
+    public List<LevelOfDetail.Level> markerLevels() {
+        return LevelOfDetail.markerLevels(xy, 0, xy.length / 2);
+    }
+}
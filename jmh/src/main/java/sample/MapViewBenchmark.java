@@ -0,0 +1,97 @@
+package sample;
+
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx1g",
+        "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+        "-Djavafx.animation.fullspeed=true"
+})
+public class MapViewBenchmark {
+    @Param({"immediate", "buffered", "packed"})
+    public String mode;
+
+    @Param({"2000"})
+    public int waypoints;
+
+    private Stage stage;
+    private MapView mapView;
+    private double[] xy;
+    private long draws = 0, bridgeCalls = 0;
+
+    @Setup
+    public void setUp() throws Exception {
+        FxHarness.start();
+        mapView = FxHarness.call(MapView::new);
+        stage = FxHarness.show(mapView);
+        xy = new double[waypoints * 2];
+        for (int i = 0; i < waypoints; i++) {
+            xy[i * 2] = (double) i / waypoints;
+            xy[i * 2 + 1] = (i / 10) % 2 == 0 ? 0.25 : 0.75;
+        }
+        FxHarness.call(() -> {
+            mapView.setBuffered(!mode.equals("immediate"));
+            return null;
+        });
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.println(mode + ": " + bridgeCalls / Math.max(draws, 1) + " bridge calls per route");
+        FxHarness.close(stage, mapView);
+    }
+
+    @Benchmark
+    public long drawRoute() throws Exception {
+        long calls = FxHarness.call(() -> {
+            long before = mapView.getBridgeCallCount();
+            mapView.clearRect(new MapView.Coords(0, 0), new MapView.Bounds(1, 1));
+            if (mode.equals("packed")) drawPacked();
+            else drawPrimitives();
+            mapView.flush();
+            return mapView.getBridgeCallCount() - before;
+        });
+        draws++;
+        bridgeCalls += calls;
+        return calls;
+    }
+
+    private void drawPrimitives() {
+        mapView.beginPath();
+        for (int i = 0; i < waypoints; i++) {
+            MapView.Coords coords = new MapView.Coords(xy[i * 2], xy[i * 2 + 1]);
+            mapView.lineTo(coords);
+            mapView.strokePath();
+            mapView.beginPath();
+            mapView.arcPathPixel(mapView.unitCoordsToPixels(coords), 10, 0, 2 * Math.PI);
+            mapView.closePath();
+            mapView.fillPath();
+            mapView.beginPath();
+            mapView.moveTo(coords);
+        }
+    }
+
+    private void drawPacked() {
+        mapView.drawPolyline(xy);
+        mapView.drawMarkers(xy, 10);
+    }
+}
@@ -0,0 +1,60 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ParallelRoutePlannerBenchmark {
+    @Param({"3000"})
+    public int cells;
+
+    @Param({"even", "odd"})
+    public String branch;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private RouteGenerator generator;
+    private ForkJoinPool pool;
+    private ParallelRoutePlanner planner;
+
+    @Setup
+    public void setUp() {
+        generator = new RouteGenerator(1, 1, branch.equals("odd") ? cells + 1 : cells, cells + 1);
+        pool = new ForkJoinPool(threads);
+        planner = new ParallelRoutePlanner(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Route sequential() {
+        return generator.toRoute();
+    }
+
+    @Benchmark
+    public Route parallel() {
+        return planner.plan(generator);
+    }
+}
@@ -0,0 +1,68 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PlannerBenchmark {
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double[] calculate() {
+        return RoutePlanner.calculate(35, 24, 36, 120);
+    }
+
+    @Benchmark
+    public Route calculateRoute(Field field) {
+        return RoutePlanner.calculateRoute(1, 1, field.height, field.width);
+    }
+
+    @Benchmark
+    public Route invertCoords(Inversion inversion) {
+        return RoutePlanner.invertCoords(inversion.route);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Field {
+        @Param({"10", "100", "1000", "10000"})
+        public int cells;
+
+        @Param({"even", "odd"})
+        public String branch;
+
+        private int height, width;
+
+        @Setup
+        public void setup() {
+            height = branch.equals("odd") ? cells + 1 : cells;
+            width = cells + 1;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Inversion {
+        @Param({"10", "100", "1000"})
+        public int cells;
+
+        private Route route;
+
+        @Setup
+        public void setup() {
+            route = RoutePlanner.calculateRoute(1, 1, cells, cells + 1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package sample;
+
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx1g",
+        "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+        "-Djavafx.animation.fullspeed=true"
+})
+public class RendererBenchmark {
+    @Param({"canvas", "webview"})
+    public String backend;
+
+    @Param({"300"})
+    public int cells;
+
+    private Stage stage;
+    private MapRenderer renderer;
+    private RouteGenerator route;
+
+    @Setup
+    public void setUp() throws Exception {
+        FxHarness.start();
+        route = new RouteGenerator(1, 1, cells, cells);
+        renderer = FxHarness.call(() -> backend.equals("canvas") ? new CanvasMapView() : new MapView());
+        stage = FxHarness.show(renderer);
+        FxHarness.call(() -> {
+            if (renderer instanceof MapView) ((MapView) renderer).setBuffered(true);
+            return RouteDrawer.draw(renderer, route, cells, cells);
+        });
+        FxHarness.nextFrame();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FxHarness.close(stage, renderer);
+    }
+
+    @Benchmark
+    public int drawRoute() throws Exception {
+        int items = FxHarness.call(() -> {
+            renderer.clearItems();
+            return RouteDrawer.draw(renderer, route, cells, cells).size();
+        });
+        FxHarness.nextFrame();
+        return items;
+    }
+
+    @Benchmark
+    public long resizeFrame() throws Exception {
+        FxHarness.call(() -> {
+            stage.setWidth(stage.getWidth() == FxHarness.WIDTH ? FxHarness.WIDTH - 20 : FxHarness.WIDTH);
+            return null;
+        });
+        return FxHarness.nextFrame();
+    }
+}
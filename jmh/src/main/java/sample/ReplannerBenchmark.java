@@ -0,0 +1,85 @@
+package sample;
+
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Time from a re-plan request to the last slice of it landing on the FX thread, without the debounce delay.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx2g",
+        "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+        "-Djavafx.animation.fullspeed=true"
+})
+public class ReplannerBenchmark {
+    private static final double FOCUS = 0.035, CENSOR_HEIGHT = 0.0156, CENSOR_WIDTH = 0.0235;
+
+    @Param({"900"})
+    public double field;
+
+    private Stage stage;
+    private CanvasMapView renderer;
+    private Replanner replanner;
+    private volatile CompletableFuture<Void> applied;
+    private long target = 0;
+    private double altitude = 5;
+
+    @Setup
+    public void setUp() throws Exception {
+        FxHarness.start();
+        renderer = FxHarness.call(CanvasMapView::new);
+        stage = FxHarness.show(renderer);
+        GeoProjection projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), field, field);
+        replanner = new Replanner(renderer, projection, 0, command -> Platform.runLater(() -> {
+            command.run();
+            if (replanner.getApplied() >= target) applied.complete(null);
+        }));
+        replan(altitude);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.println(String.format(Locale.US, "%n%d re-plans applied in %d slices, longest slice %.2f ms",
+                replanner.getApplied(), replanner.getSlices(), replanner.getMaxSliceNanos() / 1e6));
+        replanner.close();
+        FxHarness.close(stage, renderer);
+    }
+
+    @Benchmark
+    public long changedAltitude() throws Exception {
+        altitude = altitude == 5 ? 5.01 : 5;
+        return replan(altitude);
+    }
+
+    @Benchmark
+    public long identical() throws Exception {
+        return replan(altitude);
+    }
+
+    private long replan(double height) throws Exception {
+        applied = new CompletableFuture<>();
+        target++;
+        replanner.request(FOCUS, CENSOR_HEIGHT, CENSOR_WIDTH, height, field, field);
+        applied.get(60, TimeUnit.SECONDS);
+        return target;
+    }
+}
@@ -0,0 +1,121 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RouteExportBenchmark {
+    @Param({"1000"})
+    public int cells;
+
+    private RouteGenerator route;
+    private GeoProjection projection;
+    private Path directory, output, binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        route = new RouteGenerator(1, 1, cells, cells);
+        projection = new GeoProjection(new MapView.LatLng(50.466977, 31.211438), cells, cells);
+        directory = Files.createTempDirectory("export");
+        output = directory.resolve("route.out");
+        binary = directory.resolve("route64.bin");
+        RouteExporter.writeBinary(route, cells, cells, binary, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long printlnPerWaypoint() throws IOException {
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(output)), false, "UTF-8")) {
+            route.forEach((i, x, y) -> out.println(x + " " + y));
+        }
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public long printRoute() throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            RoutePlanner.printRoute(route, out);
+        }
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public long binaryFloat64() throws IOException {
+        RouteExporter.writeBinary(route, cells, cells, output, false);
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public long binaryFloat32() throws IOException {
+        RouteExporter.writeBinary(route, cells, cells, output, true);
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public Route readBinary() throws IOException {
+        return RouteExporter.readBinary(binary);
+    }
+
+    @Benchmark
+    public long mission() throws IOException {
+        try (FileChannel out = open(output)) {
+            RouteExporter.exportMission(route, projection, 120, out);
+        }
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public long geoJson() throws IOException {
+        try (FileChannel out = open(output)) {
+            RouteExporter.exportGeoJson(route, projection, out);
+        }
+        return Files.size(output);
+    }
+
+    @Benchmark
+    public long kml() throws IOException {
+        try (FileChannel out = open(output)) {
+            RouteExporter.exportKml(route, projection, 120, out);
+        }
+        return Files.size(output);
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
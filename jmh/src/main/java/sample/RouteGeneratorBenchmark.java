@@ -0,0 +1,64 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RouteGeneratorBenchmark {
+    @Param({"1000"})
+    public int cells;
+
+    private RouteGenerator lookupGenerator;
+    private long next = 0;
+
+    @Setup
+    public void setUp() {
+        lookupGenerator = new RouteGenerator(1, 1, cells, cells + 1);
+    }
+
+    @Benchmark
+    public Route simulate() {
+        return RoutePlanner.simulateRoute(1, 1, cells, cells + 1);
+    }
+
+    @Benchmark
+    public Route generate() {
+        return new RouteGenerator(1, 1, cells, cells + 1).toRoute();
+    }
+
+    @Benchmark
+    public double streamLength() {
+        return new RouteGenerator(1, 1, cells * 10, cells * 10 + 1).getLength();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double randomAccess() {
+        RouteGenerator generator = new RouteGenerator(1, 1, cells, cells + 1);
+        return generator.getX(generator.size() / 2) + generator.getY(generator.size() - 2);
+    }
+
+    // Lookups alone on a built generator, striding through the route so no two land in the same place.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double lookup() {
+        next = (next + 7919) % lookupGenerator.size();
+        return lookupGenerator.getX(next) + lookupGenerator.getY(next);
+    }
+}
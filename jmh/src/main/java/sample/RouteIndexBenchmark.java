@@ -0,0 +1,71 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RouteIndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000"})
+    public int cells;
+
+    private RouteGenerator route;
+    private RouteIndex index;
+    private final double[] points = new double[QUERIES * 2];
+    private int query;
+
+    @Setup
+    public void setUp() {
+        route = new RouteGenerator(1, 1, cells, cells);
+        index = RouteIndex.build(route, cells, cells);
+        Random random = new Random(42);
+        for (int i = 0; i < points.length; i++) points[i] = random.nextDouble() * 1.2 - 0.1;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RouteIndex build() {
+        return RouteIndex.build(route, cells, cells);
+    }
+
+    @Benchmark
+    public int nearest() {
+        int q = next();
+        return index.nearest(points[q], points[q + 1], 800, 600);
+    }
+
+    @Benchmark
+    public int hitTest() {
+        int q = next();
+        return index.hitTest(points[q], points[q + 1], 10, 800, 600);
+    }
+
+    @Benchmark
+    public int[] viewport() {
+        int q = next();
+        return index.query(points[q], points[q + 1], points[q] + 0.05, points[q + 1] + 0.05);
+    }
+
+    private int next() {
+        query = (query + 1) & (QUERIES - 1);
+        return query * 2;
+    }
+}
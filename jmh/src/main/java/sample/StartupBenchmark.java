@@ -0,0 +1,84 @@
+package sample;
+
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Each fork is a fresh JVM and each benchmark runs once in it, so the score is the cold-start cost of planning
+// one mission: headless through RoutePlanner, or behind FX toolkit startup the way the UI used to plan.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class StartupBenchmark {
+    private static final double[] MISSION = {35, 24, 36, 120, 500, 500};
+
+    @Benchmark
+    public long headless() throws IOException {
+        return plan();
+    }
+
+    @Benchmark
+    public long toolkit() throws Exception {
+        CompletableFuture<Long> planned = new CompletableFuture<>();
+        Platform.startup(() -> {
+            try {
+                planned.complete(plan());
+            } catch (IOException e) {
+                planned.completeExceptionally(e);
+            }
+        });
+        try {
+            return planned.get(60, TimeUnit.SECONDS);
+        } finally {
+            Platform.exit();
+        }
+    }
+
+    private static long plan() throws IOException {
+        RouteGenerator route = RoutePlanner.plan(MISSION[0], MISSION[1], MISSION[2], MISSION[3], MISSION[4], MISSION[5]);
+        CountingWriter out = new CountingWriter();
+        RoutePlanner.printRoute(route, out);
+        return out.chars;
+    }
+
+    private static class CountingWriter extends Writer {
+        private long chars = 0;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            chars += length;
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            chars += text.length();
+            return this;
+        }
+
+        @Override
+        public Writer append(char c) {
+            chars++;
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
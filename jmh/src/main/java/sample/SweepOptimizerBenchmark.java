@@ -0,0 +1,58 @@
+package sample;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SweepOptimizerBenchmark {
+    @Param({"18", "180"})
+    public int angles;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private SweepOptimizer optimizer;
+    private double[] field;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        optimizer = new SweepOptimizer(20, 30, 40, 0, pool);
+        field = new double[2000 * 2];
+        for (int i = 0; i < 2000; i++) {
+            double angle = 2 * Math.PI * i / 2000;
+            double radius = 400 + 150 * Math.sin(3 * angle) + 50 * Math.sin(7 * angle);
+            field[i * 2] = 600 + 1.6 * radius * Math.cos(angle + 0.4);
+            field[i * 2 + 1] = 600 + 0.7 * radius * Math.sin(angle);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SweepOptimizer.Result optimize() {
+        return optimizer.optimize(0, 0, angles, field);
+    }
+}
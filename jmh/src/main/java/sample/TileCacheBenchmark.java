@@ -0,0 +1,88 @@
+package sample;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileCacheBenchmark {
+    private static final int TILE_BYTES = 20 * 1024;
+    private static final int SLOTS = 256;
+
+    private Path dir;
+    private HttpServer upstream;
+    private TileCache cache;
+    private TileServer server;
+    private String local;
+    private byte[] tile;
+    private long next = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        dir = Files.createTempDirectory("tiles");
+        tile = new byte[TILE_BYTES];
+        for (int i = 0; i < tile.length; i++) tile[i] = (byte) (i * 31);
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, tile.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(tile);
+            }
+        });
+        upstream.start();
+        cache = new TileCache(dir.resolve("tiles.db"), (long) SLOTS * TileCache.SLOT_SIZE);
+        server = new TileServer(cache, "http://127.0.0.1:" + upstream.getAddress().getPort() + "/?z={z}&x={x}&y={y}");
+        local = server.getUrlTemplate();
+        cache.put(TileCache.key(14, 0, 0), tile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop();
+        upstream.stop(0);
+        cache.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(path -> path.toFile().delete());
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public byte[] cacheHit() throws IOException {
+        return cache.get(TileCache.key(14, 0, 0));
+    }
+
+    @Benchmark
+    public boolean putWithEviction() throws IOException {
+        return cache.put(TileCache.key(15, next++, 0), tile);
+    }
+
+    @Benchmark
+    public byte[] localServerHit() throws IOException {
+        return TileSeeder.download(local, 14, 0, 0);
+    }
+}
@@ -0,0 +1,344 @@
+package sample;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class BatchPlanner implements AutoCloseable {
+    public static final String HEADER = "id,photo_height,photo_width,waypoints,length_m,plan_ms,error";
+
+    private final ExecutorService executor;
+    private final int window;
+    private final Path routeDirectory;
+
+    public BatchPlanner(int threads, int window) {
+        this(threads, window, null);
+    }
+
+    public BatchPlanner(int threads, int window, Path routeDirectory) {
+        if (threads < 1 || window < 1) throw new IllegalArgumentException("threads and window must be positive");
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.window = window;
+        this.routeDirectory = routeDirectory;
+    }
+
+    public Summary run(Iterator<Mission> missions, long total, ResultSink sink, ProgressListener progress) throws IOException {
+        ArrayDeque<Future<Result>> pending = new ArrayDeque<>(window);
+        Summary summary = new Summary(System.nanoTime());
+        while (missions.hasNext()) {
+            if (pending.size() == window) emit(pending.poll(), sink, summary, total, progress);
+            Mission mission = missions.next();
+            pending.add(executor.submit(() -> plan(mission)));
+        }
+        while (!pending.isEmpty()) emit(pending.poll(), sink, summary, total, progress);
+        summary.elapsedNanos = System.nanoTime() - summary.start;
+        return summary;
+    }
+
+    private void emit(Future<Result> future, ResultSink sink, Summary summary, long total, ProgressListener progress) throws IOException {
+        Result result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch planning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Batch planning failed", e.getCause());
+        }
+        summary.add(result);
+        sink.accept(result);
+        if (progress != null) progress.progress(summary.missions, total, System.nanoTime() - summary.start);
+    }
+
+    private Result plan(Mission mission) {
+        long start = System.nanoTime();
+        if (mission.error != null) return new Result(mission.id, 0, 0, 0, 0, 0, mission.error);
+        try {
+            double[] footprint = RoutePlanner.calculate(mission.focusDistance, mission.censorHeight, mission.censorWidth, mission.height);
+            RouteGenerator route = new RouteGenerator(footprint[0], footprint[1], mission.fieldHeight, mission.fieldWidth);
+            double length = route.getLength();
+            if (routeDirectory != null) {
+                try (Writer out = Files.newBufferedWriter(routeFile(mission.id), StandardCharsets.UTF_8)) {
+                    RoutePlanner.printRoute(route, out);
+                }
+            }
+            return new Result(mission.id, footprint[0], footprint[1], route.size(), length, System.nanoTime() - start, null);
+        } catch (RuntimeException | IOException e) {
+            return new Result(mission.id, 0, 0, 0, 0, System.nanoTime() - start, e.toString());
+        }
+    }
+
+    // Mission ids come from the input file, so one must never name a path outside the route directory.
+    private Path routeFile(String id) {
+        Path directory = routeDirectory.normalize();
+        Path file = directory.resolve(id + ".txt").normalize();
+        if (id.isEmpty() || id.contains("/") || id.contains("\\") || id.contains("..") || !directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Mission id is not a plain file name: " + id);
+        }
+        return file;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static Iterator<Mission> read(BufferedReader reader) {
+        return new Iterator<Mission>() {
+            private Mission next = null;
+            private int line = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) return true;
+                try {
+                    String text;
+                    while ((text = reader.readLine()) != null) {
+                        line++;
+                        text = text.trim();
+                        if (text.isEmpty() || text.startsWith("#") || text.startsWith("id,")) continue;
+                        // A malformed line fails its own mission instead of the whole batch.
+                        try {
+                            next = Mission.parse(text, line);
+                        } catch (IllegalArgumentException e) {
+                            String id = text.split(",", 2)[0].trim();
+                            next = new Mission(id.isEmpty() ? "line " + line : id, e.getMessage());
+                        }
+                        return true;
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Mission next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Mission mission = next;
+                next = null;
+                return mission;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path input = null, output = null, routes = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--routes": routes = Paths.get(args[++i]); break;
+                case "--output": output = Paths.get(args[++i]); break;
+                default:
+                    if (input != null || args[i].startsWith("--")) {
+                        System.err.println("Usage: BatchPlanner [--threads n] [--routes dir] [--output file] [missions.csv]");
+                        System.exit(2);
+                    }
+                    input = Paths.get(args[i]);
+            }
+        }
+        if (routes != null) Files.createDirectories(routes);
+
+        long total = input != null ? countMissions(input) : -1;
+        try (BufferedReader in = input != null
+                ? Files.newBufferedReader(input, StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+             Writer out = output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+             BatchPlanner planner = new BatchPlanner(threads, threads * 64, routes)) {
+            out.write(HEADER);
+            out.write('\n');
+            long[] reported = {System.nanoTime()};
+            Summary summary = planner.run(read(in), total, result -> result.write(out), (done, all, elapsed) -> {
+                long now = System.nanoTime();
+                if (now - reported[0] < TimeUnit.SECONDS.toNanos(1)) return;
+                reported[0] = now;
+                System.err.println(String.format(Locale.US, "%d%s missions planned, %.0f missions/s",
+                        done, all >= 0 ? "/" + all : "", done / (elapsed / 1e9)));
+            });
+            out.flush();
+            System.err.println(summary);
+        }
+    }
+
+    private static long countMissions(Path input) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            long count = 0;
+            for (Iterator<Mission> missions = read(reader); missions.hasNext(); missions.next()) count++;
+            return count;
+        }
+    }
+
+    public interface ResultSink {
+        void accept(Result result) throws IOException;
+    }
+
+    public interface ProgressListener {
+        void progress(long done, long total, long elapsedNanos);
+    }
+
+    public static class Mission {
+        private final String id;
+        private final double focusDistance, censorHeight, censorWidth, height, fieldHeight, fieldWidth;
+        private final String error;
+
+        public Mission(String id, double focusDistance, double censorHeight, double censorWidth, double height, double fieldHeight, double fieldWidth) {
+            this.id = id;
+            this.focusDistance = focusDistance;
+            this.censorHeight = censorHeight;
+            this.censorWidth = censorWidth;
+            this.height = height;
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+            this.error = null;
+        }
+
+        private Mission(String id, String error) {
+            this.id = id;
+            this.focusDistance = this.censorHeight = this.censorWidth = this.height = this.fieldHeight = this.fieldWidth = 0;
+            this.error = error;
+        }
+
+        public static Mission parse(String line, int number) {
+            String[] parts = line.split(",");
+            if (parts.length != 7) {
+                throw new IllegalArgumentException("Line " + number + ": expected id,focusDistance,censorHeight,censorWidth,height,fieldHeight,fieldWidth");
+            }
+            try {
+                return new Mission(parts[0].trim(),
+                        Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()),
+                        Double.parseDouble(parts[4].trim()), Double.parseDouble(parts[5].trim()), Double.parseDouble(parts[6].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + number + ": " + e.getMessage(), e);
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public static class Result {
+        private final String id;
+        private final double photoHeight, photoWidth;
+        private final long waypoints;
+        private final double length;
+        private final long nanos;
+        private final String error;
+
+        private Result(String id, double photoHeight, double photoWidth, long waypoints, double length, long nanos, String error) {
+            this.id = id;
+            this.photoHeight = photoHeight;
+            this.photoWidth = photoWidth;
+            this.waypoints = waypoints;
+            this.length = length;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getWaypoints() {
+            return waypoints;
+        }
+
+        public double getLength() {
+            return length;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        // One HEADER row: failures leave the numeric columns empty and put the reason in the last one.
+        public void write(Appendable out) throws IOException {
+            if (error != null) {
+                out.append(id).append(",,,,,,").append(error.replace(',', ';').replace('\r', ' ').replace('\n', ' ')).append('\n');
+                return;
+            }
+            out.append(String.format(Locale.US, "%s,%.6f,%.6f,%d,%.3f,%.3f,", id, photoHeight, photoWidth, waypoints, length, nanos / 1e6)).append('\n');
+        }
+    }
+
+    public static class Summary {
+        private final long start;
+        private long missions = 0, failures = 0, waypoints = 0, planNanos = 0, maxNanos = 0;
+        private long elapsedNanos = 0;
+
+        private Summary(long start) {
+            this.start = start;
+        }
+
+        private void add(Result result) {
+            missions++;
+            if (result.error != null) failures++;
+            waypoints += result.waypoints;
+            planNanos += result.nanos;
+            maxNanos = Math.max(maxNanos, result.nanos);
+        }
+
+        public long getMissions() {
+            return missions;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getWaypoints() {
+            return waypoints;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d missions (%d failed), %d waypoints in %.1f ms: %.0f missions/s, %.1f M waypoints/s; plan time mean %.3f ms, max %.3f ms",
+                    missions, failures, waypoints, elapsedNanos / 1e6,
+                    missions / (elapsedNanos / 1e9), waypoints / (elapsedNanos / 1e3),
+                    planNanos / 1e6 / Math.max(missions, 1), maxNanos / 1e6
+            );
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package sample;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.transform.Scale;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CanvasMapView extends Region implements MapRenderer {
+    private static final double BUFFER_WIDTH = 1000;
+    private static final int MAX_TILES = 64;
+    private static final long TILE_RETRY_NANOS = 30_000_000_000L;
+    private static final ExecutorService tileLoader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "canvas-tiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Canvas tileLayer = new Canvas();
+    private final Canvas buffer = new Canvas();
+    private final Canvas itemLayer = new Canvas();
+    private final Scale bufferScale = new Scale(1, 1, 0, 0);
+    private MapView.LatLngBounds bounds;
+    private double zoom;
+    private boolean loaded = false;
+    private List<Runnable> onLoad = new ArrayList<>();
+
+    private Paint strokePaint = Color.BLACK;
+    private Paint fillPaint = Color.BLACK;
+    private long lineWidth = 1;
+
+    private final Map<Long, Item> items = new LinkedHashMap<>();
+    private long nextItem = 1;
+    private RouteIndex routeIndex = null;
+
+    private final Map<String, Image> tiles = new LinkedHashMap<>();
+    private final Set<String> pendingTiles = new HashSet<>();
+    private final Map<String, Long> failedTiles = new HashMap<>();
+    private TileServer tileServer = null;
+    private int tileZoom;
+    private double tileMinX, tileMinY, tileMaxX, tileMaxY;
+
+    private boolean tilesDirty = false, itemsDirty = false;
+    private boolean disposed = false;
+    private long frames = 0, renderNanos = 0;
+    // Runs only between an invalidation and the frame that draws it, like MapView's flush timer.
+    private final AnimationTimer renderTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            render();
+            if (!tilesDirty && !itemsDirty) stop();
+        }
+    };
+
+    public CanvasMapView() {
+        buffer.getTransforms().add(bufferScale);
+        getChildren().addAll(tileLayer, buffer, itemLayer);
+    }
+
+    @Override
+    public void init(MapView.LatLng center, MapView.LatLngBounds bounds, double zoom) {
+        this.bounds = bounds;
+        this.zoom = zoom;
+        MapView.LatLng first = bounds.getFirstBound(), second = bounds.getSecondBound();
+        buffer.setWidth(BUFFER_WIDTH);
+        buffer.setHeight(Math.abs(BUFFER_WIDTH * ((first.getLongitude() - second.getLongitude()) / (first.getLatitude() - second.getLatitude()))));
+        chooseTileZoom();
+
+        ConnectivityProbe.check().thenAccept(online -> Platform.runLater(() -> {
+            try {
+                tileServer = TileServer.shared();
+                tileServer.setUpstreamEnabled(online);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            invalidate(true, false);
+        }));
+
+        loaded = true;
+        invalidate(true, true);
+        onLoad.forEach(Runnable::run);
+        onLoad = null;
+    }
+
+    @Override
+    public void setBounds(MapView.LatLngBounds bounds) {
+        this.bounds = bounds;
+        MapView.LatLng first = bounds.getFirstBound(), second = bounds.getSecondBound();
+        buffer.setHeight(Math.abs(BUFFER_WIDTH * ((first.getLongitude() - second.getLongitude()) / (first.getLatitude() - second.getLatitude()))));
+        if (getWidth() > 0 && getHeight() > 0) bufferScale.setY(getHeight() / buffer.getHeight());
+        chooseTileZoom();
+        invalidate(true, true);
+    }
+
+    @Override
+    public void onload(Runnable callback) {
+        if (onLoad == null) callback.run();
+        else onLoad.add(callback);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth(), height = getHeight();
+        if (tileLayer.getWidth() == width && tileLayer.getHeight() == height) return;
+        for (Canvas layer : new Canvas[] {tileLayer, itemLayer}) {
+            layer.setWidth(width);
+            layer.setHeight(height);
+        }
+        if (buffer.getWidth() > 0 && buffer.getHeight() > 0) {
+            bufferScale.setX(width / buffer.getWidth());
+            bufferScale.setY(height / buffer.getHeight());
+        }
+        invalidate(true, true);
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        renderTimer.stop();
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    private void checkLoaded() {
+        if (!loaded) throw new RuntimeException("The view has not loaded yet! Please await by using instance.onload(() -> {...})");
+    }
+
+    private GraphicsContext context() {
+        checkLoaded();
+        return buffer.getGraphicsContext2D();
+    }
+
+    @Override
+    public void setLineWidth(long lineWidth) {
+        this.lineWidth = lineWidth;
+        context().setLineWidth(lineWidth);
+    }
+
+    @Override
+    public void setStrokePattern(MapView.Pattern strokePattern) {
+        strokePaint = strokePattern.toPaint();
+        context().setStroke(strokePaint);
+    }
+
+    @Override
+    public void setFillPattern(MapView.Pattern fillPattern) {
+        fillPaint = fillPattern.toPaint();
+        context().setFill(fillPaint);
+    }
+
+    @Override
+    public MapView.Coords unitCoordsToPixels(MapView.Coords units) {
+        return new MapView.Coords(
+                Math.round(units.getX() * buffer.getWidth()),
+                Math.round(units.getY() * buffer.getHeight())
+        );
+    }
+
+    private MapView.Bounds unitBoundsToPixels(MapView.Bounds units) {
+        return new MapView.Bounds(
+                Math.round(units.getHeight() * buffer.getHeight()),
+                Math.round(units.getWidth() * buffer.getWidth())
+        );
+    }
+
+    @Override
+    public void fillRect(MapView.Coords coords, MapView.Bounds bounds) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        MapView.Bounds size = unitBoundsToPixels(bounds);
+        context().fillRect(pixels.getX(), pixels.getY(), size.getWidth(), size.getHeight());
+    }
+
+    @Override
+    public void clearRect(MapView.Coords coords, MapView.Bounds bounds) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        MapView.Bounds size = unitBoundsToPixels(bounds);
+        context().clearRect(pixels.getX(), pixels.getY(), size.getWidth(), size.getHeight());
+    }
+
+    @Override
+    public void strokeRect(MapView.Coords coords, MapView.Bounds bounds) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        MapView.Bounds size = unitBoundsToPixels(bounds);
+        context().strokeRect(pixels.getX(), pixels.getY(), size.getWidth(), size.getHeight());
+    }
+
+    @Override
+    public void fillText(CharSequence text, MapView.Coords coords) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        context().fillText(text.toString(), pixels.getX(), pixels.getY());
+    }
+
+    @Override
+    public void strokeText(CharSequence text, MapView.Coords coords) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        context().strokeText(text.toString(), pixels.getX(), pixels.getY());
+    }
+
+    @Override
+    public void beginPath() {
+        context().beginPath();
+    }
+
+    @Override
+    public void closePath() {
+        context().closePath();
+    }
+
+    @Override
+    public void fillPath() {
+        context().fill();
+    }
+
+    @Override
+    public void strokePath() {
+        context().stroke();
+    }
+
+    @Override
+    public void moveTo(MapView.Coords coords) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        context().moveTo(pixels.getX(), pixels.getY());
+    }
+
+    @Override
+    public void lineTo(MapView.Coords coords) {
+        MapView.Coords pixels = unitCoordsToPixels(coords);
+        context().lineTo(pixels.getX(), pixels.getY());
+        context().moveTo(pixels.getX(), pixels.getY());
+    }
+
+    @Override
+    public void arcPathPixel(MapView.Coords coords, long r, double startAngle, double endAngle) {
+        context().arc(coords.getX(), coords.getY(), r, r, -Math.toDegrees(startAngle), -Math.toDegrees(endAngle - startAngle));
+    }
+
+    @Override
+    public void drawPolyline(double[] xy, int from, int to) {
+        if (to - from < 2) return;
+        GraphicsContext context = context();
+        double width = buffer.getWidth(), height = buffer.getHeight();
+        context.beginPath();
+        context.moveTo(Math.round(xy[from * 2] * width), Math.round(xy[from * 2 + 1] * height));
+        for (int i = from + 1; i < to; i++) context.lineTo(Math.round(xy[i * 2] * width), Math.round(xy[i * 2 + 1] * height));
+        context.stroke();
+    }
+
+    @Override
+    public void drawMarkers(double[] xy, int from, int to, long r) {
+        GraphicsContext context = context();
+        double width = buffer.getWidth(), height = buffer.getHeight();
+        for (int i = from; i < to; i++) {
+            context.fillOval(Math.round(xy[i * 2] * width) - r, Math.round(xy[i * 2 + 1] * height) - r, 2 * r, 2 * r);
+        }
+    }
+
+    @Override
+    public long addPolyline(double[] xy, int from, int to) {
+        return addPolyline(LevelOfDetail.polyline(xy, from, to));
+    }
+
+    @Override
+    public long addMarkers(double[] xy, int from, int to, long r) {
+        return addMarkers(LevelOfDetail.markers(xy, from, to), r);
+    }
+
+    @Override
+    public long addPolyline(LevelOfDetail.Detail polyline) {
+        return addItem(new Item(Item.POLYLINE, polyline.getXY(), polyline.getLevels(), 0, null));
+    }
+
+    @Override
+    public long addMarkers(LevelOfDetail.Detail markers, long r) {
+        return addItem(new Item(Item.MARKERS, markers.getXY(), markers.getLevels(), r, null));
+    }
+
+    @Override
+    public long addRect(MapView.Coords coords, MapView.Bounds bounds) {
+        return addItem(new Item(
+                Item.RECT, new double[] {coords.getX(), coords.getY(), bounds.getWidth(), bounds.getHeight()}, null, 0, null
+        ));
+    }
+
+    @Override
+    public long addText(CharSequence text, MapView.Coords coords) {
+        return addItem(new Item(Item.TEXT, new double[] {coords.getX(), coords.getY()}, null, 0, text.toString()));
+    }
+
+    private long addItem(Item item) {
+        checkLoaded();
+        long id = nextItem++;
+        items.put(id, item);
+        invalidate(false, true);
+        return id;
+    }
+
+    @Override
+    public void removeItem(long id) {
+        if (items.remove(id) != null) invalidate(false, true);
+    }
+
+    @Override
+    public void clearItems() {
+        items.clear();
+        invalidate(false, true);
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    @Override
+    public void setRouteIndex(RouteIndex routeIndex) {
+        this.routeIndex = routeIndex;
+    }
+
+    @Override
+    public int waypointAt(double x, double y, double radiusPixels) {
+        if (routeIndex == null || getWidth() <= 0 || getHeight() <= 0) return -1;
+        return routeIndex.hitTest(x / getWidth(), y / getHeight(), radiusPixels, getWidth(), getHeight());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    private void invalidate(boolean tiles, boolean items) {
+        tilesDirty |= tiles;
+        itemsDirty |= items;
+        if (loaded && !disposed) renderTimer.start();
+    }
+
+    private void render() {
+        if (!tilesDirty && !itemsDirty) return;
+        long start = System.nanoTime();
+        if (tilesDirty) {
+            tilesDirty = false;
+            renderTiles();
+        }
+        if (itemsDirty) {
+            itemsDirty = false;
+            renderItems();
+        }
+        renderNanos += System.nanoTime() - start;
+        frames++;
+    }
+
+    private void chooseTileZoom() {
+        MapView.LatLng first = bounds.getFirstBound(), second = bounds.getSecondBound();
+        double north = Math.max(first.getLatitude(), second.getLatitude()), south = Math.min(first.getLatitude(), second.getLatitude());
+        double west = Math.min(first.getLongitude(), second.getLongitude()), east = Math.max(first.getLongitude(), second.getLongitude());
+        for (tileZoom = (int) Math.round(zoom); tileZoom > 0; tileZoom--) {
+            long columns = TileSeeder.tileX(east, tileZoom) - TileSeeder.tileX(west, tileZoom) + 1;
+            long rows = TileSeeder.tileY(south, tileZoom) - TileSeeder.tileY(north, tileZoom) + 1;
+            if (columns * rows <= MAX_TILES) break;
+        }
+        tileMinX = TileSeeder.worldX(west, tileZoom);
+        tileMaxX = TileSeeder.worldX(east, tileZoom);
+        tileMinY = TileSeeder.worldY(north, tileZoom);
+        tileMaxY = TileSeeder.worldY(south, tileZoom);
+    }
+
+    private void renderTiles() {
+        GraphicsContext context = tileLayer.getGraphicsContext2D();
+        double width = tileLayer.getWidth(), height = tileLayer.getHeight();
+        context.clearRect(0, 0, width, height);
+        if (tileServer == null) return;
+        double scaleX = width / (tileMaxX - tileMinX), scaleY = height / (tileMaxY - tileMinY);
+        int size = TileSeeder.TILE_SIZE;
+        for (long x = (long) Math.floor(tileMinX / size); x <= (long) Math.floor(tileMaxX / size); x++) {
+            for (long y = (long) Math.floor(tileMinY / size); y <= (long) Math.floor(tileMaxY / size); y++) {
+                Image tile = tile(x, y);
+                if (tile == null) continue;
+                context.drawImage(tile, (x * size - tileMinX) * scaleX, (y * size - tileMinY) * scaleY, size * scaleX, size * scaleY);
+            }
+        }
+    }
+
+    private Image tile(long x, long y) {
+        String key = TileCache.key(tileZoom, x, y);
+        Image tile = tiles.get(key);
+        if (tile != null || pendingTiles.contains(key)) return tile;
+        Long retry = failedTiles.get(key);
+        if (retry != null && System.nanoTime() < retry) return null;
+        pendingTiles.add(key);
+        TileServer server = tileServer;
+        int zoom = tileZoom;
+        tileLoader.execute(() -> {
+            Image image = null;
+            try {
+                byte[] bytes = server.tile(zoom, x, y);
+                if (bytes != null) image = new Image(new ByteArrayInputStream(bytes));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            Image ready = image != null && !image.isError() ? image : null;
+            Platform.runLater(() -> {
+                pendingTiles.remove(key);
+                if (ready == null) {
+                    // Missing or broken: try again on a later redraw, not on every one.
+                    failedTiles.put(key, System.nanoTime() + TILE_RETRY_NANOS);
+                    return;
+                }
+                failedTiles.remove(key);
+                tiles.put(key, ready);
+                invalidate(true, false);
+            });
+        });
+        return null;
+    }
+
+    private void renderItems() {
+        GraphicsContext context = itemLayer.getGraphicsContext2D();
+        double width = itemLayer.getWidth(), height = itemLayer.getHeight();
+        context.clearRect(0, 0, width, height);
+        for (Item item : items.values()) {
+            context.setStroke(item.stroke);
+            context.setFill(item.fill);
+            context.setLineWidth(item.lineWidth);
+            double[] xy = item.xy;
+            switch (item.type) {
+                case Item.POLYLINE: {
+                    xy = polylineLevel(item, Math.max(width, height));
+                    if (xy.length < 4) break;
+                    context.beginPath();
+                    context.moveTo(xy[0] * width, xy[1] * height);
+                    for (int i = 2; i < xy.length; i += 2) context.lineTo(xy[i] * width, xy[i + 1] * height);
+                    context.stroke();
+                    break;
+                }
+                case Item.MARKERS: {
+                    xy = markerLevel(item, Math.min(width, height));
+                    for (int i = 0; i < xy.length; i += 2) {
+                        context.fillArc(xy[i] * width - item.r, xy[i + 1] * height - item.r, 2 * item.r, 2 * item.r, 0, 360, ArcType.ROUND);
+                    }
+                    break;
+                }
+                case Item.RECT:
+                    context.strokeRect(xy[0] * width, xy[1] * height, xy[2] * width, xy[3] * height);
+                    break;
+                case Item.TEXT:
+                    context.fillText(item.text, xy[0] * width, xy[1] * height);
+                    break;
+            }
+        }
+    }
+
+    private static double[] polylineLevel(Item item, double scale) {
+        for (LevelOfDetail.Level level : item.levels) {
+            if (level.getCell() * scale <= 1) return level.getXY();
+        }
+        return item.xy;
+    }
+
+    private static double[] markerLevel(Item item, double scale) {
+        List<LevelOfDetail.Level> levels = item.levels;
+        if (levels.isEmpty() || levels.get(levels.size() - 1).getCell() / 2 * scale >= 2 * item.r) return item.xy;
+        for (int i = levels.size() - 1; i > 0; i--) {
+            if (levels.get(i).getCell() * scale >= 2 * item.r) return levels.get(i).getXY();
+        }
+        return levels.get(0).getXY();
+    }
+
+    private class Item {
+        private static final int POLYLINE = 0, MARKERS = 1, RECT = 2, TEXT = 3;
+
+        private final int type;
+        private final double[] xy;
+        private final List<LevelOfDetail.Level> levels;
+        private final long r;
+        private final String text;
+        private final Paint stroke = strokePaint, fill = fillPaint;
+        private final long lineWidth = CanvasMapView.this.lineWidth;
+
+        private Item(int type, double[] xy, List<LevelOfDetail.Level> levels, long r, String text) {
+            this.type = type;
+            this.xy = xy;
+            this.levels = levels;
+            this.r = r;
+            this.text = text;
+        }
+    }
+}
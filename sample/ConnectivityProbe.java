@@ -0,0 +1,48 @@
+package sample;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ConnectivityProbe {
+    private static final String PROBE_URL = "https://maps.googleapis.com/maps/api/js";
+    private static final int TIMEOUT_MILLIS = 3000;
+    private static final long CACHE_MILLIS = 60_000;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "connectivity-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static CompletableFuture<Boolean> result = null;
+    private static long checkedAt = 0;
+
+    public static synchronized CompletableFuture<Boolean> check() {
+        long now = System.currentTimeMillis();
+        if (result == null || (result.isDone() && now - checkedAt > CACHE_MILLIS)) {
+            checkedAt = now;
+            result = CompletableFuture.supplyAsync(ConnectivityProbe::probe, EXECUTOR);
+        }
+        return result;
+    }
+
+    private static boolean probe() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(PROBE_URL).openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            try {
+                return connection.getResponseCode() < 500;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package sample;
+
+import java.util.Arrays;
+
+public class CoveragePlanner {
+    private final double photoHeight, photoWidth;
+
+    public CoveragePlanner(double photoHeight, double photoWidth) {
+        if (!(photoHeight > 0) || !(photoWidth > 0)) throw new IllegalArgumentException("Photo footprint must be positive");
+        this.photoHeight = photoHeight;
+        this.photoWidth = photoWidth;
+    }
+
+    public static double[] rectangle(double height, double width) {
+        return new double[] {0, 0, width, 0, width, height, 0, height};
+    }
+
+    public Plan plan(double[]... rings) {
+        Intervals intervals = sweep(rings);
+        if (intervals == null) return new Plan(new Route(), 0, 0);
+        Cells cells = new Cells(intervals);
+        Route route = new Route(Math.max(16, (int) Math.min(Integer.MAX_VALUE / 4, estimate(intervals))));
+        cells.emit(route);
+        if (route.size() > 0) route.add(route.getX(0), route.getY(0));
+        return new Plan(route, cells.count, intervals.columns);
+    }
+
+    public Estimate estimate(double[]... rings) {
+        Intervals intervals = sweep(rings);
+        if (intervals == null || intervals.size == 0) return new Estimate(0, 0, 0, 0, Double.NaN, Double.NaN);
+        long photos = 0;
+        double length = 0;
+        for (int c = 0; c < intervals.columns; c++) {
+            for (int i = intervals.columnStart[c]; i < intervals.columnStart[c + 1]; i++) {
+                int stops = stops(intervals.lo[i], intervals.hi[i]);
+                photos += stops;
+                length += (stops - 1) * photoHeight;
+                if (i > intervals.columnStart[c]) length += 2 * (intervals.lo[i] - intervals.hi[i - 1]);
+            }
+        }
+        int firstColumn = 0;
+        while (intervals.columnStart[firstColumn + 1] == 0) firstColumn++;
+        length += 2 * (intervals.columnX[intervals.columns - 1] - intervals.columnX[firstColumn]);
+        return new Estimate(photos, 2L * intervals.size, intervals.size, length, intervals.columnX[firstColumn], intervals.lo[0]);
+    }
+
+    private Intervals sweep(double[][] rings) {
+        Edges edges = new Edges(rings);
+        if (edges.count == 0) return null;
+
+        double width = edges.maxX - edges.minX;
+        int columns = (int) Math.max(1, Math.ceil(width / photoWidth));
+        Intervals intervals = new Intervals(columns);
+        Sweep sweep = new Sweep(edges, photoHeight);
+        for (int column = 0; column < columns; column++) {
+            double x = width <= photoWidth
+                    ? edges.minX + width / 2
+                    : Math.min(edges.minX + photoWidth / 2 + column * photoWidth, edges.maxX - photoWidth / 2);
+            double left = Math.max(x - photoWidth / 2, edges.minX), right = Math.min(x + photoWidth / 2, edges.maxX);
+            sweep.advance(left, right);
+            intervals.startColumn(column, x);
+            sweep.strip(left, x, right, intervals);
+        }
+        intervals.finish();
+        return intervals;
+    }
+
+    private long estimate(Intervals intervals) {
+        long waypoints = 1;
+        for (int i = 0; i < intervals.size; i++) waypoints += stops(intervals.lo[i], intervals.hi[i]);
+        return waypoints;
+    }
+
+    private int stops(double lo, double hi) {
+        return (int) Math.max(1, Math.ceil((hi - lo) / photoHeight));
+    }
+
+    private void column(Route route, double x, double lo, double hi, boolean up) {
+        int stops = stops(lo, hi);
+        if (hi - lo <= photoHeight) {
+            route.add(x, (lo + hi) / 2);
+            return;
+        }
+        for (int i = 0; i < stops; i++) {
+            int step = up ? i : stops - 1 - i;
+            route.add(x, Math.min(lo + photoHeight / 2 + step * photoHeight, hi - photoHeight / 2));
+        }
+    }
+
+    public static class Plan {
+        private final Route route;
+        private final int cells;
+        private final int columns;
+
+        private Plan(Route route, int cells, int columns) {
+            this.route = route;
+            this.cells = cells;
+            this.columns = columns;
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+
+        public int getCells() {
+            return cells;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+    }
+
+    public static class Estimate {
+        private final long photos, turns;
+        private final int columnRuns;
+        private final double length, startX, startY;
+
+        private Estimate(long photos, long turns, int columnRuns, double length, double startX, double startY) {
+            this.photos = photos;
+            this.turns = turns;
+            this.columnRuns = columnRuns;
+            this.length = length;
+            this.startX = startX;
+            this.startY = startY;
+        }
+
+        public long getPhotos() {
+            return photos;
+        }
+
+        public long getTurns() {
+            return turns;
+        }
+
+        public int getColumnRuns() {
+            return columnRuns;
+        }
+
+        public double getLength() {
+            return length;
+        }
+
+        public double getStartX() {
+            return startX;
+        }
+
+        public double getStartY() {
+            return startY;
+        }
+    }
+
+    private static class Edges {
+        private final double[] x0, y0, x1, y1;
+        private final int[] order;
+        private final int count;
+        private double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+
+        private Edges(double[][] rings) {
+            int capacity = 0;
+            for (double[] ring : rings) capacity += ring.length / 2;
+            x0 = new double[capacity];
+            y0 = new double[capacity];
+            x1 = new double[capacity];
+            y1 = new double[capacity];
+            int count = 0;
+            for (double[] ring : rings) {
+                int points = ring.length / 2;
+                if (points < 3) continue;
+                for (int i = 0; i < points; i++) {
+                    int j = (i + 1) % points;
+                    double ax = ring[i * 2], ay = ring[i * 2 + 1], bx = ring[j * 2], by = ring[j * 2 + 1];
+                    minX = Math.min(minX, ax);
+                    maxX = Math.max(maxX, ax);
+                    x0[count] = ax;
+                    y0[count] = ay;
+                    x1[count] = bx;
+                    y1[count] = by;
+                    count++;
+                }
+            }
+            this.count = count;
+
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) Float.floatToIntBits(left(i)) << 32 | i;
+            }
+            Arrays.sort(keys);
+            order = new int[count];
+            for (int i = 0; i < count; i++) order[i] = (int) keys[i];
+        }
+
+        private float left(int edge) {
+            return (float) (Math.min(x0[edge], x1[edge]) - minX);
+        }
+    }
+
+    private static class Sweep {
+        private final Edges edges;
+        private final double gap;
+        private int[] active = new int[16];
+        private int activeCount = 0, next = 0;
+        private double[] crossings = new double[16];
+        private double[] lo = new double[16], hi = new double[16];
+
+        private Sweep(Edges edges, double gap) {
+            this.edges = edges;
+            this.gap = gap;
+        }
+
+        private void advance(double left, double right) {
+            float limit = (float) (right - edges.minX);
+            while (next < edges.count && edges.left(edges.order[next]) <= limit) {
+                if (activeCount == active.length) active = Arrays.copyOf(active, activeCount * 2);
+                active[activeCount++] = edges.order[next++];
+            }
+            for (int i = 0; i < activeCount; ) {
+                int edge = active[i];
+                if (Math.max(edges.x0[edge], edges.x1[edge]) < left) {
+                    active[i] = active[--activeCount];
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        private void strip(double left, double centre, double right, Intervals out) {
+            // The field seen by the strip is what lies across its centre plus every boundary edge's span clipped to
+            // the strip, which also catches spikes and vertices that no single sample line would cross.
+            int size = cross(centre, 0);
+            for (int i = 0; i < activeCount; i++) size = span(active[i], left, right, size);
+            if (size == 0) return;
+
+            Arrays.sort(lo, 0, size);
+            Arrays.sort(hi, 0, size);
+            double start = 0;
+            for (int i = 0, j = 0, depth = 0; j < size; ) {
+                if (i < size && lo[i] <= hi[j] + gap) {
+                    if (depth++ == 0) start = lo[i];
+                    i++;
+                } else {
+                    if (--depth == 0) out.add(start, hi[j]);
+                    j++;
+                }
+            }
+        }
+
+        private int span(int edge, double left, double right, int size) {
+            double ax = edges.x0[edge], ay = edges.y0[edge], bx = edges.x1[edge], by = edges.y1[edge];
+            if (Math.max(ax, bx) < left || Math.min(ax, bx) > right) return size;
+            double from = ay, to = by;
+            if (ax != bx) {
+                double slope = (by - ay) / (bx - ax);
+                from = ay + (Math.max(Math.min(ax, bx), left) - ax) * slope;
+                to = ay + (Math.min(Math.max(ax, bx), right) - ax) * slope;
+            }
+            if (size == lo.length) {
+                lo = Arrays.copyOf(lo, size * 2);
+                hi = Arrays.copyOf(hi, size * 2);
+            }
+            lo[size] = Math.min(from, to);
+            hi[size] = Math.max(from, to);
+            return size + 1;
+        }
+
+        private int cross(double x, int size) {
+            int count = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int edge = active[i];
+                double ax = edges.x0[edge], bx = edges.x1[edge];
+                if ((ax <= x && x < bx) || (bx <= x && x < ax)) {
+                    if (count == crossings.length) crossings = Arrays.copyOf(crossings, count * 2);
+                    double ay = edges.y0[edge];
+                    crossings[count++] = ay + (x - ax) / (bx - ax) * (edges.y1[edge] - ay);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int i = 0; i + 1 < count; i += 2) {
+                if (size == lo.length) {
+                    lo = Arrays.copyOf(lo, size * 2);
+                    hi = Arrays.copyOf(hi, size * 2);
+                }
+                lo[size] = crossings[i];
+                hi[size] = crossings[i + 1];
+                size++;
+            }
+            return size;
+        }
+    }
+
+    private static class Intervals {
+        private final int[] columnStart;
+        private final double[] columnX;
+        private double[] lo = new double[64], hi = new double[64];
+        private int size = 0, columns = 0;
+
+        private Intervals(int columns) {
+            columnStart = new int[columns + 1];
+            columnX = new double[columns];
+        }
+
+        private void startColumn(int column, double x) {
+            columnStart[column] = size;
+            columnX[column] = x;
+            columns = column + 1;
+        }
+
+        private void add(double lo, double hi) {
+            if (size == this.lo.length) {
+                this.lo = Arrays.copyOf(this.lo, size * 2);
+                this.hi = Arrays.copyOf(this.hi, size * 2);
+            }
+            this.lo[size] = lo;
+            this.hi[size] = hi;
+            size++;
+        }
+
+        private void finish() {
+            columnStart[columns] = size;
+        }
+    }
+
+    private class Cells {
+        private final Intervals intervals;
+        private final int[] cellOf, column, next;
+        private int[] first = new int[16], last = new int[16];
+        private int[] links = new int[16];
+        private int count = 0, linkCount = 0;
+
+        private Cells(Intervals intervals) {
+            this.intervals = intervals;
+            cellOf = new int[intervals.size];
+            column = new int[intervals.size];
+            next = new int[intervals.size];
+            Arrays.fill(next, -1);
+
+            int[] degree = new int[intervals.size];
+            int[] match = new int[intervals.size];
+            for (int c = 0; c < intervals.columns; c++) {
+                int from = intervals.columnStart[c], to = intervals.columnStart[c + 1];
+                for (int i = from; i < to; i++) column[i] = c;
+                if (c == 0) {
+                    for (int b = from; b < to; b++) open(b);
+                    continue;
+                }
+                int previousFrom = intervals.columnStart[c - 1];
+                for (int i = previousFrom; i < to; i++) degree[i] = 0;
+                for (int a = previousFrom, b = from; a < from && b < to; ) {
+                    if (overlap(a, b)) {
+                        degree[a]++;
+                        degree[b]++;
+                        match[a] = b;
+                        match[b] = a;
+                    }
+                    if (intervals.hi[a] < intervals.hi[b]) a++;
+                    else b++;
+                }
+                for (int b = from; b < to; b++) {
+                    int a = match[b];
+                    if (degree[b] == 1 && degree[a] == 1) {
+                        cellOf[b] = cellOf[a];
+                        next[a] = b;
+                        last[cellOf[b]] = b;
+                    } else {
+                        open(b);
+                    }
+                }
+                for (int a = previousFrom, b = from; a < from && b < to; ) {
+                    if (overlap(a, b) && cellOf[a] != cellOf[b]) link(cellOf[a], cellOf[b]);
+                    if (intervals.hi[a] < intervals.hi[b]) a++;
+                    else b++;
+                }
+            }
+        }
+
+        private boolean overlap(int a, int b) {
+            return intervals.hi[a] >= intervals.lo[b] && intervals.hi[b] >= intervals.lo[a];
+        }
+
+        private void open(int interval) {
+            if (count == first.length) {
+                first = Arrays.copyOf(first, count * 2);
+                last = Arrays.copyOf(last, count * 2);
+            }
+            cellOf[interval] = count;
+            first[count] = interval;
+            last[count] = interval;
+            count++;
+        }
+
+        private void link(int a, int b) {
+            if (linkCount + 2 > links.length) links = Arrays.copyOf(links, links.length * 2);
+            links[linkCount++] = a;
+            links[linkCount++] = b;
+        }
+
+        private void emit(Route route) {
+            if (count == 0) return;
+            int[] neighbourStart = new int[count + 1];
+            for (int i = 0; i < linkCount; i++) neighbourStart[links[i] + 1]++;
+            for (int i = 0; i < count; i++) neighbourStart[i + 1] += neighbourStart[i];
+            int[] neighbours = new int[linkCount], fill = Arrays.copyOf(neighbourStart, count);
+            for (int i = 0; i < linkCount; i += 2) {
+                neighbours[fill[links[i]]++] = links[i + 1];
+                neighbours[fill[links[i + 1]]++] = links[i];
+            }
+
+            boolean[] done = new boolean[count];
+            int[] stack = new int[count];
+            int depth = 0, unvisited = 0;
+            double x = intervals.columnX[column[0]], y = intervals.lo[0];
+            while (true) {
+                int best = -1, bestVariant = 0;
+                double bestDistance = Double.POSITIVE_INFINITY;
+                while (depth > 0 && best < 0) {
+                    int top = stack[depth - 1];
+                    for (int i = neighbourStart[top]; i < neighbourStart[top + 1]; i++) {
+                        int cell = neighbours[i];
+                        if (done[cell]) continue;
+                        for (int variant = 0; variant < 4; variant++) {
+                            double distance = distance(cell, variant, x, y);
+                            if (distance < bestDistance) {
+                                bestDistance = distance;
+                                best = cell;
+                                bestVariant = variant;
+                            }
+                        }
+                    }
+                    if (best < 0) depth--;
+                }
+                if (best < 0) {
+                    while (unvisited < count && done[unvisited]) unvisited++;
+                    if (unvisited == count) return;
+                    best = unvisited;
+                    for (int variant = 0; variant < 4; variant++) {
+                        double distance = distance(best, variant, x, y);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            bestVariant = variant;
+                        }
+                    }
+                }
+                done[best] = true;
+                stack[depth++] = best;
+                walk(route, best, (bestVariant & 2) != 0, (bestVariant & 1) == 0);
+                x = route.getX(route.size() - 1);
+                y = route.getY(route.size() - 1);
+            }
+        }
+
+        private double distance(int cell, int variant, double x, double y) {
+            int interval = (variant & 2) == 0 ? first[cell] : last[cell];
+            double startY = (variant & 1) == 0 ? intervals.lo[interval] : intervals.hi[interval];
+            return Math.hypot(intervals.columnX[column[interval]] - x, startY - y);
+        }
+
+        private void walk(Route route, int cell, boolean backwards, boolean up) {
+            int length = 1;
+            for (int i = first[cell]; i != last[cell]; i = next[i]) length++;
+            int[] chain = new int[length];
+            int k = 0;
+            for (int i = first[cell]; ; i = next[i]) {
+                chain[k++] = i;
+                if (i == last[cell]) break;
+            }
+            for (int j = 0; j < length; j++) {
+                int interval = chain[backwards ? length - 1 - j : j];
+                column(route, intervals.columnX[column[interval]], intervals.lo[interval], intervals.hi[interval], up);
+                up = !up;
+            }
+        }
+    }
+}
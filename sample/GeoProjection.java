@@ -0,0 +1,140 @@
+package sample;
+
+public class GeoProjection {
+    private static final double EQUATORIAL_RADIUS = 6378137.0;
+    private static final double ECCENTRICITY_SQUARED = 6.69437999014e-3;
+    private static final double TILE_SIZE = 256;
+
+    private final MapView.LatLng origin;
+    private final double fieldHeight, fieldWidth;
+    private final double latitudePerMetre, longitudePerMetre;
+    private final double latitudeOffset, longitudeOffset;
+    private final double pixelXPerMetre, pixelYPerMetre;
+    private final double pixelXOffset, pixelYOffset;
+
+    public GeoProjection(MapView.LatLng origin, double fieldHeight, double fieldWidth) {
+        this.origin = origin;
+        this.fieldHeight = fieldHeight;
+        this.fieldWidth = fieldWidth;
+
+        double centreLatitude = origin.getLatitude() + Math.toDegrees(fieldHeight / 2 / meridionalRadius(origin.getLatitude()));
+        double meridional = meridionalRadius(centreLatitude);
+        double primeVertical = primeVerticalRadius(centreLatitude);
+        latitudePerMetre = Math.toDegrees(1 / meridional);
+        longitudePerMetre = Math.toDegrees(1 / (primeVertical * Math.cos(Math.toRadians(centreLatitude))));
+        centreLatitude = origin.getLatitude() + fieldHeight / 2 * latitudePerMetre;
+        latitudeOffset = origin.getLatitude();
+        longitudeOffset = origin.getLongitude();
+
+        double centreX = mercatorX(origin.getLongitude() + fieldWidth / 2 * longitudePerMetre);
+        double centreY = mercatorY(centreLatitude);
+        pixelXPerMetre = TILE_SIZE / 360 * longitudePerMetre;
+        pixelYPerMetre = -TILE_SIZE / (2 * Math.PI) / Math.cos(Math.toRadians(centreLatitude)) / meridional;
+        pixelXOffset = centreX - fieldWidth / 2 * pixelXPerMetre;
+        pixelYOffset = centreY - fieldHeight / 2 * pixelYPerMetre;
+    }
+
+    public MapView.LatLng getOrigin() {
+        return origin;
+    }
+
+    public double getFieldHeight() {
+        return fieldHeight;
+    }
+
+    public double getFieldWidth() {
+        return fieldWidth;
+    }
+
+    public MapView.LatLng getCenter() {
+        return new MapView.LatLng(latitude(fieldHeight / 2), longitude(fieldWidth / 2));
+    }
+
+    public MapView.LatLngBounds getBounds() {
+        return new MapView.LatLngBounds(
+                new MapView.LatLng(latitude(0), longitude(0)),
+                new MapView.LatLng(latitude(fieldHeight), longitude(fieldWidth))
+        );
+    }
+
+    public double latitude(double y) {
+        return latitudeOffset + y * latitudePerMetre;
+    }
+
+    public double longitude(double x) {
+        return longitudeOffset + x * longitudePerMetre;
+    }
+
+    public double metresPerPixel(int zoom) {
+        return 1 / (pixelXPerMetre * (1L << zoom));
+    }
+
+    public void metresToLngLat(double[] src, int srcOffset, double[] dst, int dstOffset, int count) {
+        transform(src, srcOffset, dst, dstOffset, count, longitudePerMetre, longitudeOffset, latitudePerMetre, latitudeOffset);
+    }
+
+    public void lngLatToMetres(double[] src, int srcOffset, double[] dst, int dstOffset, int count) {
+        transform(src, srcOffset, dst, dstOffset, count,
+                1 / longitudePerMetre, -longitudeOffset / longitudePerMetre,
+                1 / latitudePerMetre, -latitudeOffset / latitudePerMetre);
+    }
+
+    public void metresToUnits(double[] src, int srcOffset, double[] dst, int dstOffset, int count) {
+        transform(src, srcOffset, dst, dstOffset, count, 1 / fieldWidth, 0, -1 / fieldHeight, 1);
+    }
+
+    public void unitsToMetres(double[] src, int srcOffset, double[] dst, int dstOffset, int count) {
+        transform(src, srcOffset, dst, dstOffset, count, fieldWidth, 0, -fieldHeight, fieldHeight);
+    }
+
+    public void metresToPixels(double[] src, int srcOffset, double[] dst, int dstOffset, int count, int zoom) {
+        double scale = 1L << zoom;
+        transform(src, srcOffset, dst, dstOffset, count,
+                pixelXPerMetre * scale, pixelXOffset * scale,
+                pixelYPerMetre * scale, pixelYOffset * scale);
+    }
+
+    public void pixelsToMetres(double[] src, int srcOffset, double[] dst, int dstOffset, int count, int zoom) {
+        double scale = 1L << zoom;
+        transform(src, srcOffset, dst, dstOffset, count,
+                1 / (pixelXPerMetre * scale), -pixelXOffset / pixelXPerMetre,
+                1 / (pixelYPerMetre * scale), -pixelYOffset / pixelYPerMetre);
+    }
+
+    private static void transform(double[] src, int srcOffset, double[] dst, int dstOffset, int count,
+                                  double scaleX, double offsetX, double scaleY, double offsetY) {
+        int end = srcOffset + count * 2;
+        if (src == dst && dstOffset > srcOffset) {
+            for (int i = end - 2, j = dstOffset + count * 2 - 2; i >= srcOffset; i -= 2, j -= 2) {
+                dst[j] = src[i] * scaleX + offsetX;
+                dst[j + 1] = src[i + 1] * scaleY + offsetY;
+            }
+            return;
+        }
+        for (int i = srcOffset, j = dstOffset; i < end; i += 2, j += 2) {
+            double x = src[i], y = src[i + 1];
+            dst[j] = x * scaleX + offsetX;
+            dst[j + 1] = y * scaleY + offsetY;
+        }
+    }
+
+    private static double mercatorX(double longitude) {
+        return (longitude + 180) / 360 * TILE_SIZE;
+    }
+
+    private static double mercatorY(double latitude) {
+        double radians = Math.toRadians(latitude);
+        return (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * TILE_SIZE;
+    }
+
+    private static double meridionalRadius(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        double w = 1 - ECCENTRICITY_SQUARED * sin * sin;
+        return EQUATORIAL_RADIUS * (1 - ECCENTRICITY_SQUARED) / (w * Math.sqrt(w));
+    }
+
+    private static double primeVerticalRadius(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        return EQUATORIAL_RADIUS / Math.sqrt(1 - ECCENTRICITY_SQUARED * sin * sin);
+    }
+}
@@ -0,0 +1,199 @@
+package sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LevelOfDetail {
+    public static final int COARSEST_LEVEL = 4;
+    public static final int FINEST_LEVEL = 20;
+    private static final double MAX_KEPT = 0.75;
+
+    public static double cellSize(int level) {
+        return Math.scalb(1.0, -level);
+    }
+
+    public static double[] decimatePolyline(double[] xy, int from, int to, double cell) {
+        int count = to - from;
+        if (count <= 2) return Arrays.copyOfRange(xy, from * 2, to * 2);
+        double[] kept = new double[count * 2];
+        int size = 0;
+        long lastX = 0, lastY = 0;
+        for (int i = from; i < to; i++) {
+            double x = xy[i * 2], y = xy[i * 2 + 1];
+            long cellX = (long) Math.floor(x / cell), cellY = (long) Math.floor(y / cell);
+            if (i == from || i == to - 1 || cellX != lastX || cellY != lastY) {
+                kept[size++] = x;
+                kept[size++] = y;
+                lastX = cellX;
+                lastY = cellY;
+            }
+        }
+        return removeCollinear(kept, 0, size / 2);
+    }
+
+    public static double[] removeCollinear(double[] xy, int from, int to) {
+        int count = to - from;
+        if (count <= 2) return Arrays.copyOfRange(xy, from * 2, to * 2);
+        double[] kept = new double[count * 2];
+        kept[0] = xy[from * 2];
+        kept[1] = xy[from * 2 + 1];
+        int size = 2;
+        for (int i = from + 1; i < to - 1; i++) {
+            double ax = kept[size - 2], ay = kept[size - 1];
+            double bx = xy[i * 2], by = xy[i * 2 + 1];
+            double cx = xy[i * 2 + 2], cy = xy[i * 2 + 3];
+            double cross = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+            double dot = (bx - ax) * (cx - bx) + (by - ay) * (cy - by);
+            if (Math.abs(cross) <= 1e-12 * Math.hypot(cx - ax, cy - ay) && dot >= 0) continue;
+            kept[size++] = bx;
+            kept[size++] = by;
+        }
+        kept[size++] = xy[to * 2 - 2];
+        kept[size++] = xy[to * 2 - 1];
+        return Arrays.copyOf(kept, size);
+    }
+
+    public static double[] decimateMarkers(double[] xy, int from, int to, double cell) {
+        double[] kept = new double[(to - from) * 2];
+        int size = 0;
+        CellSet cells = new CellSet(to - from);
+        for (int i = from; i < to; i++) {
+            double x = xy[i * 2], y = xy[i * 2 + 1];
+            if (cells.add((long) Math.floor(x / cell), (long) Math.floor(y / cell))) {
+                kept[size++] = x;
+                kept[size++] = y;
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    public static Detail polyline(double[] xy, int from, int to) {
+        return new Detail(removeCollinear(xy, from, to), polylineLevels(xy, from, to));
+    }
+
+    public static Detail markers(double[] xy, int from, int to) {
+        return new Detail(Arrays.copyOfRange(xy, from * 2, to * 2), markerLevels(xy, from, to));
+    }
+
+    public static List<Level> polylineLevels(double[] xy, int from, int to) {
+        return levels(xy, from, to, false);
+    }
+
+    public static List<Level> markerLevels(double[] xy, int from, int to) {
+        return levels(xy, from, to, true);
+    }
+
+    private static List<Level> levels(double[] xy, int from, int to, boolean markers) {
+        List<Level> levels = new ArrayList<>();
+        int full = markers ? (to - from) * 2 : removeCollinear(xy, from, to).length;
+        int limit = (int) (full * MAX_KEPT);
+        for (int level = COARSEST_LEVEL; level <= FINEST_LEVEL; level++) {
+            double cell = cellSize(level);
+            double[] decimated = markers ? decimateMarkers(xy, from, to, cell) : decimatePolyline(xy, from, to, cell);
+            if (decimated.length > limit) break;
+            if (!levels.isEmpty() && levels.get(levels.size() - 1).xy.length == decimated.length) {
+                levels.set(levels.size() - 1, new Level(cell, decimated));
+            } else {
+                levels.add(new Level(cell, decimated));
+            }
+        }
+        return levels;
+    }
+
+    public static class Level {
+        private final double cell;
+        private final double[] xy;
+
+        public Level(double cell, double[] xy) {
+            this.cell = cell;
+            this.xy = xy;
+        }
+
+        public double getCell() {
+            return cell;
+        }
+
+        public double[] getXY() {
+            return xy;
+        }
+
+        public int size() {
+            return xy.length / 2;
+        }
+    }
+
+    public static class Detail {
+        private final double[] xy;
+        private final List<Level> levels;
+
+        public Detail(double[] xy, List<Level> levels) {
+            this.xy = xy;
+            this.levels = levels;
+        }
+
+        public double[] getXY() {
+            return xy;
+        }
+
+        public List<Level> getLevels() {
+            return levels;
+        }
+
+        public int size() {
+            return xy.length / 2;
+        }
+
+        public long getBytes() {
+            long bytes = xy.length * 8L;
+            for (Level level : levels) bytes += level.getXY().length * 8L;
+            return bytes;
+        }
+    }
+
+    private static class CellSet {
+        private long[] keys;
+        private boolean[] used;
+        private int size = 0;
+
+        private CellSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        private boolean add(long x, long y) {
+            long key = x << 32 | (y & 0xFFFFFFFFL);
+            int mask = keys.length - 1;
+            int slot = slot(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) return false;
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            if (++size * 2 > keys.length) grow();
+            return true;
+        }
+
+        private static int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (!oldUsed[i]) continue;
+                int slot = slot(oldKeys[i]) & mask;
+                while (used[slot]) slot = (slot + 1) & mask;
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package sample;
+
+public interface MapRenderer {
+    void init(MapView.LatLng center, MapView.LatLngBounds bounds, double zoom);
+
+    void onload(Runnable callback);
+
+    void setBounds(MapView.LatLngBounds bounds);
+
+    void setLineWidth(long lineWidth);
+
+    void setStrokePattern(MapView.Pattern strokePattern);
+
+    void setFillPattern(MapView.Pattern fillPattern);
+
+    MapView.Coords unitCoordsToPixels(MapView.Coords units);
+
+    void fillRect(MapView.Coords coords, MapView.Bounds bounds);
+
+    void clearRect(MapView.Coords coords, MapView.Bounds bounds);
+
+    void strokeRect(MapView.Coords coords, MapView.Bounds bounds);
+
+    void fillText(CharSequence text, MapView.Coords coords);
+
+    void strokeText(CharSequence text, MapView.Coords coords);
+
+    void beginPath();
+
+    void closePath();
+
+    void fillPath();
+
+    void strokePath();
+
+    void moveTo(MapView.Coords coords);
+
+    void lineTo(MapView.Coords coords);
+
+    void arcPathPixel(MapView.Coords coords, long r, double startAngle, double endAngle);
+
+    void drawPolyline(double[] xy, int from, int to);
+
+    void drawMarkers(double[] xy, int from, int to, long r);
+
+    long addPolyline(double[] xy, int from, int to);
+
+    long addMarkers(double[] xy, int from, int to, long r);
+
+    long addPolyline(LevelOfDetail.Detail polyline);
+
+    long addMarkers(LevelOfDetail.Detail markers, long r);
+
+    long addRect(MapView.Coords coords, MapView.Bounds bounds);
+
+    long addText(CharSequence text, MapView.Coords coords);
+
+    void removeItem(long id);
+
+    void clearItems();
+
+    void setRouteIndex(RouteIndex routeIndex);
+
+    int waypointAt(double x, double y, double radiusPixels);
+
+    void flush();
+
+    void dispose();
+}
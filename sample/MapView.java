@@ -1,41 +1,67 @@
 package sample;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.concurrent.Worker;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
 import javafx.scene.layout.Region;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
+import netscape.javascript.JSObject;
 
 import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class MapView extends Region {
+public class MapView extends Region implements MapRenderer {
     private WebView webView;
     private LatLng center;
     private double zoom;
     private LatLngBounds bounds;
     private boolean initialized;
     private boolean loaded = false;
+    private boolean offline = false;
+    private String overlayRenderer = null;
     private Pattern strokePattern = null;
     private Pattern fillPattern = null;
     private long lineWidth = 1;
+    private boolean buffered = false;
+    private boolean redrawPending = false;
+    private boolean disposed = false;
+    private StringBuilder commandBuffer = new StringBuilder();
+    private final MapViewMetrics metrics = new MapViewMetrics();
+    private final Set<Long> displayItems = new LinkedHashSet<>();
+    private long nextDisplayItem = 1;
+    private double canvasWidth = Double.NaN;
+    private double canvasHeight = Double.NaN;
+    private double fieldLeft = Double.NaN, fieldTop = Double.NaN, fieldWidth = Double.NaN, fieldHeight = Double.NaN;
+    private RouteIndex routeIndex = null;
+    private OverlayBridge overlayBridge = new OverlayBridge();
+    private AnimationTimer flushTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            flush();
+        }
+    };
+
+    private static final String OVERLAY = "window.MapOverlay.CanvasOverlay";
+    private static final String CONTEXT = OVERLAY + ".getContext()";
+    private static final AtomicInteger instances = new AtomicInteger();
 
     public Pattern getStrokePattern() {
         return strokePattern;
     }
 
     public void setStrokePattern(Pattern strokePattern) {
-        checkLoaded();
         this.strokePattern = strokePattern;
-        getWebEngine().executeScript(
-                String.format(Locale.US, 
-                        "%s = %s",
-                        "window.MapOverlay.CanvasOverlay.getContext().strokeStyle",
-                        strokePattern.toJS()
-                )
-        );
+        contextStatement("strokeStyle = " + strokePattern.toJS());
     }
 
     public Pattern getFillPattern() {
@@ -43,15 +69,8 @@ public class MapView extends Region {
     }
 
     public void setFillPattern(Pattern fillPattern) {
-        checkLoaded();
         this.fillPattern = fillPattern;
-        getWebEngine().executeScript(
-                String.format(Locale.US, 
-                        "%s = %s",
-                        "window.MapOverlay.CanvasOverlay.getContext().fillStyle",
-                        fillPattern.toJS()
-                )
-        );
+        contextStatement("fillStyle = " + fillPattern.toJS());
     }
 
     public long getLineWidth() {
@@ -59,18 +78,66 @@ public class MapView extends Region {
     }
 
     public void setLineWidth(long lineWidth) {
-        checkLoaded();
         this.lineWidth = lineWidth;
-        getWebEngine().executeScript(buildAssignment(
-                "window.MapOverlay.CanvasOverlay.getContext().lineWidth",
-                lineWidth
-        ));
+        contextStatement(buildAssignment("lineWidth", lineWidth));
+    }
+
+    public boolean isBuffered() {
+        return buffered;
+    }
+
+    public void setBuffered(boolean buffered) {
+        checkLoaded();
+        if (this.buffered == buffered) return;
+        if (!buffered) flush();
+        this.buffered = buffered;
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        flushTimer.stop();
+        metrics.unregister();
+    }
+
+    public void flush() {
+        checkLoaded();
+        if (redrawPending) {
+            redrawPending = false;
+            String invalidate = buildFunctionCall("window.MapOverlay.CanvasOverlay.invalidate");
+            if (buffered) commandBuffer.append(invalidate).append(";\n");
+            else executeScript("invalidate", invalidate);
+        }
+        if (commandBuffer.length() == 0) return;
+        executeScript("flush", "(function (c) {\n" + commandBuffer + "})(" + CONTEXT + ");");
+        commandBuffer.setLength(0);
+        metrics.flushed();
+    }
+
+    public long getBridgeCallCount() {
+        return metrics.getBridgeCalls();
+    }
+
+    public MapViewMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getCoalescedRedrawCount() {
+        checkLoaded();
+        return metrics.getCoalescedRedraws() + ((Number) executeScript(
+                "window.MapOverlay.CanvasOverlay.getCoalescedCount()"
+        )).longValue();
     }
 
     public static final boolean dimaPidor = true;
 
     private List<Runnable> onLoad = new ArrayList<>();
     { onLoad.add(() -> loaded = true); }
+    { onLoad.add(() -> executeScript("window.MapOverlay.CanvasOverlay.publishSize()")); }
+    { sceneProperty().addListener((observable, oldValue, newValue) -> {
+        if (newValue == null) flushTimer.stop();
+        else if (redrawPending || commandBuffer.length() > 0) scheduleFlush();
+    }); }
 
     private void checkLoaded() {
         if (!loaded) throw new RuntimeException("The page has not loaded yet! Please await by using instance.onload(() -> {...})");
@@ -85,11 +152,14 @@ public class MapView extends Region {
     }
 
     public void onload(Runnable callback) {
-        onLoad.add(callback);
+        if (onLoad == null) callback.run();
+        else onLoad.add(callback);
     }
 
     public void init(LatLng center, LatLngBounds bounds, double zoom) {
-        if (!checkInternetConnection()) throw new RuntimeException("Internet connection required");
+        metrics.phase(MapViewMetrics.Phase.INIT);
+        metrics.register("MapView-" + instances.incrementAndGet());
+        CompletableFuture<Boolean> connectivity = ConnectivityProbe.check();
 
         initialized = true;
         this.center = center;
@@ -101,7 +171,40 @@ public class MapView extends Region {
         getWebEngine().load(getClass().getResource(
                 "/sample/mapviewlayout.html" // TODO change resource name!
         ).toString());
-        getWebEngine().executeScript(String.format(Locale.US, 
+        getChildren().add(webView);
+        getWebEngine().getLoadWorker().stateProperty().addListener(
+                (observable, oldValue, newValue) -> {
+                    if (newValue != Worker.State.SUCCEEDED) {
+                        return;
+                    }
+
+                    metrics.phase(MapViewMetrics.Phase.PAGE_LOADED);
+                    JSObject window = (JSObject) executeScript("window");
+                    window.setMember("mapViewBridge", overlayBridge);
+                    connectivity.thenAccept(online -> {
+                        metrics.phase(MapViewMetrics.Phase.CONNECTIVITY_RESOLVED);
+                        Platform.runLater(() -> startOverlay(online));
+                    });
+                }
+        );
+    }
+
+    public LatLngBounds getBounds() {
+        return bounds;
+    }
+
+    public void setBounds(LatLngBounds bounds) {
+        this.bounds = bounds;
+        overlayStatement(String.format(Locale.US,
+                "window.MapOverlay.CanvasOverlay.setBounds({lat: %.8f, lng: %.8f}, {lat: %.8f, lng: %.8f})",
+                bounds.getFirstBound().getLatitude(), bounds.getFirstBound().getLongitude(),
+                bounds.getSecondBound().getLatitude(), bounds.getSecondBound().getLongitude()
+        ));
+    }
+
+    private void startOverlay(boolean online) {
+        offline = !online;
+        executeScript(String.format(Locale.US, 
                 "window.COORDS = {\n" +
                         "            center: {\n" +
                         "                lat: %f, lng: %f\n" +
@@ -119,25 +222,41 @@ public class MapView extends Region {
                 bounds.getSecondBound().getLatitude(), bounds.getSecondBound().getLongitude(),
                 zoom
         ));
-        getChildren().add(webView);
-        getWebEngine().getLoadWorker().stateProperty().addListener(
-                (observable, oldValue, newValue) -> {
-                    if (newValue != Worker.State.SUCCEEDED) {
-                        return;
-                    }
+        publishTiles(online);
+        executeScript(online ? "loadMaps()" : "initOffline()");
+    }
 
-                    onLoad.forEach(Runnable::run);
-                    onLoad = null;
-                }
-        );
+    private void publishTiles(boolean online) {
+        try {
+            TileServer tiles = TileServer.shared();
+            tiles.setUpstreamEnabled(online);
+            if (online && !tiles.hasUpstream()) return;
+            executeScript("window.TILES = {url: \"" + tiles.getUrlTemplate() + "\"};");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public String getOverlayRenderer() {
+        return overlayRenderer;
     }
 
     public double getCanvasWidth() {
-        return ((Number) getWebEngine().executeScript("window.MapOverlay.CanvasOverlay.getWidth()")).doubleValue();
+        if (Double.isNaN(canvasWidth)) {
+            canvasWidth = ((Number) executeScript("window.MapOverlay.CanvasOverlay.getWidth()")).doubleValue();
+        }
+        return canvasWidth;
     }
 
     public double getCanvasHeight() {
-        return ((Number) getWebEngine().executeScript("window.MapOverlay.CanvasOverlay.getHeight()")).doubleValue();
+        if (Double.isNaN(canvasHeight)) {
+            canvasHeight = ((Number) executeScript("window.MapOverlay.CanvasOverlay.getHeight()")).doubleValue();
+        }
+        return canvasHeight;
     }
 
     public long verticalUnitsToPixels(double units) {
@@ -155,15 +274,6 @@ public class MapView extends Region {
         );
     }
 
-    private static boolean checkInternetConnection() {
-        try {
-            Process process = Runtime.getRuntime().exec("ping www.google.com");
-            return process.waitFor() == 0;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     public Coords unitCoordsToPixels(Coords units) {
         return new Coords(
                 horizontalUnitsToPixels(units.x),
@@ -171,10 +281,53 @@ public class MapView extends Region {
         );
     }
 
+    public void unitCoordsToPixels(double[] xs, double[] ys) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("Coordinate arrays differ in length: " + xs.length + " and " + ys.length);
+        double width = getCanvasWidth();
+        double height = getCanvasHeight();
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = Math.round(xs[i] * width);
+            ys[i] = Math.round(ys[i] * height);
+        }
+    }
+
     private void update() {
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.draw"
-        ));
+        metrics.redrawRequested(redrawPending);
+        redrawPending = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!disposed && getScene() != null) flushTimer.start();
+    }
+
+    private Object executeScript(String script) {
+        return executeScript("query", script);
+    }
+
+    private Object executeScript(String kind, String script) {
+        return metrics.bridgeCall(kind, script, () -> getWebEngine().executeScript(script));
+    }
+
+    private void contextCall(String method, Object... params) {
+        metrics.primitive(method);
+        statement(buildFunctionCall(method, params));
+    }
+
+    private void contextStatement(String statement) {
+        int end = statement.indexOf(' ');
+        metrics.primitive(end < 0 ? statement : statement.substring(0, end));
+        statement(statement);
+    }
+
+    private void statement(String statement) {
+        checkLoaded();
+        if (buffered) {
+            commandBuffer.append("c.").append(statement).append(";\n");
+            scheduleFlush();
+        } else {
+            executeScript("statement", CONTEXT + "." + statement);
+        }
     }
 
     private static void showAlert(String message) {
@@ -215,12 +368,11 @@ public class MapView extends Region {
     }
 
     public void fillRectPixel(Coords coords, Bounds bounds) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().fillRect",
+        contextCall(
+                "fillRect",
                 coords.getX(), coords.getY(),
                 bounds.getWidth(), bounds.getHeight()
-        ));
+        );
         update();
     }
 
@@ -229,12 +381,11 @@ public class MapView extends Region {
     }
 
     public void clearRectPixel(Coords coords, Bounds bounds) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().clearRect",
+        contextCall(
+                "clearRect",
                 coords.getX(), coords.getY(),
                 bounds.getWidth(), bounds.getHeight()
-        ));
+        );
         update();
     }
 
@@ -243,21 +394,19 @@ public class MapView extends Region {
     }
 
     public void strokeRectPixel(Coords coords, Bounds bounds) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().strokeRect",
+        contextCall(
+                "strokeRect",
                 coords.getX(), coords.getY(),
                 bounds.getWidth(), bounds.getHeight()
-        ));
+        );
         update();
     }
 
     public void strokeTextPixel(CharSequence text, Coords coords, long maxWidth) {
-        checkLoaded();
         Object[] args = maxWidth < 0 ? new Object[] {text.toString(), coords.x, coords.y} : new Object[] {text.toString(), coords.x, coords.y, maxWidth};
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().strokeText", args
-        ));
+        contextCall(
+                "strokeText", args
+        );
     }
 
     public void strokeTextPixel(CharSequence text, Coords coords) {
@@ -273,11 +422,10 @@ public class MapView extends Region {
     }
 
     public void fillTextPixel(CharSequence text, Coords coords, long maxWidth) {
-        checkLoaded();
         Object[] args = maxWidth < 0 ? new Object[] {text.toString(), coords.x, coords.y} : new Object[] {text.toString(), coords.x, coords.y, maxWidth};
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().fillText", args
-        ));
+        contextCall(
+                "fillText", args
+        );
     }
 
     public void fillTextPixel(CharSequence text, Coords coords) {
@@ -297,49 +445,43 @@ public class MapView extends Region {
     }
 
     public void beginPath() {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().beginPath"
-        ));
+        contextCall(
+                "beginPath"
+        );
     }
 
     public void closePath() {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().closePath"
-        ));
+        contextCall(
+                "closePath"
+        );
     }
 
     public void fillPath() {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().fill"
-        ));
+        contextCall(
+                "fill"
+        );
         update();
     }
 
     public void strokePath() {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().stroke"
-        ));
+        contextCall(
+                "stroke"
+        );
         update();
     }
 
     public void moveToPixel(Coords coords) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().moveTo",
+        contextCall(
+                "moveTo",
                 coords.getX(), coords.getY()
-        ));
+        );
     }
 
     public void lineToPixel(Coords coords) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().lineTo",
+        contextCall(
+                "lineTo",
                 coords.getX(), coords.getY()
-        ));
+        );
     }
 
     public void moveTo(Coords coords) {
@@ -352,14 +494,13 @@ public class MapView extends Region {
     }
 
     public void arcPathPixel(Coords coords, long r, double startAngle, double endAngle, boolean counterClockwise) {
-        checkLoaded();
-        getWebEngine().executeScript(buildFunctionCall(
-                "window.MapOverlay.CanvasOverlay.getContext().arc",
+        contextCall(
+                "arc",
                 coords.x, coords.y,
                 r,
                 startAngle, endAngle,
                 counterClockwise
-        ));
+        );
     }
 
     public void arcPathPixel(Coords coords, long r, double startAngle, double endAngle) {
@@ -384,6 +525,218 @@ public class MapView extends Region {
         );
     }
 
+    public void drawPolylinePixel(double[] xy, int from, int to) {
+        geometryCall("polyline", packCoords(xy, from, to, false));
+        update();
+    }
+
+    public void drawPolyline(double[] xy, int from, int to) {
+        geometryCall("polyline", packCoords(xy, from, to, true));
+        update();
+    }
+
+    public void drawPolyline(double[] xy) {
+        drawPolyline(xy, 0, xy.length / 2);
+    }
+
+    public void drawMarkersPixel(double[] xy, int from, int to, long r) {
+        geometryCall("markers", packCoords(xy, from, to, false), r);
+        update();
+    }
+
+    public void drawMarkers(double[] xy, int from, int to, long r) {
+        geometryCall("markers", packCoords(xy, from, to, true), r);
+        update();
+    }
+
+    public void drawMarkers(double[] xy, long r) {
+        drawMarkers(xy, 0, xy.length / 2, r);
+    }
+
+    private void geometryCall(String function, String payload, Object... params) {
+        checkLoaded();
+        metrics.primitive("Geometry." + function);
+        StringBuilder call = new StringBuilder(OVERLAY).append(".drawGeometry(\"").append(function)
+                .append("\", \"").append(payload).append("\"");
+        for (Object param : params) call.append(", ").append(param);
+        call.append(")");
+        if (buffered) {
+            commandBuffer.append(call).append(";\n");
+            scheduleFlush();
+        } else {
+            executeScript("geometry", call.toString());
+        }
+    }
+
+    public RouteIndex getRouteIndex() {
+        return routeIndex;
+    }
+
+    public void setRouteIndex(RouteIndex routeIndex) {
+        this.routeIndex = routeIndex;
+    }
+
+    public Coords localToUnit(double x, double y) {
+        if (Double.isNaN(fieldWidth)) throw new IllegalStateException("The overlay has not published its viewport yet");
+        return new Coords((x - fieldLeft) / fieldWidth, (y - fieldTop) / fieldHeight);
+    }
+
+    public int[] getVisibleWaypoints() {
+        if (routeIndex == null || Double.isNaN(fieldWidth)) return new int[0];
+        Coords topLeft = localToUnit(0, 0);
+        Coords bottomRight = localToUnit(getWidth(), getHeight());
+        return routeIndex.query(
+                Math.max(topLeft.getX(), 0), Math.max(topLeft.getY(), 0),
+                Math.min(bottomRight.getX(), 1), Math.min(bottomRight.getY(), 1)
+        );
+    }
+
+    public int waypointAt(double x, double y, double radiusPixels) {
+        if (routeIndex == null || Double.isNaN(fieldWidth)) return -1;
+        Coords units = localToUnit(x, y);
+        return routeIndex.hitTest(units.getX(), units.getY(), radiusPixels, fieldWidth, fieldHeight);
+    }
+
+    public long addPolyline(double[] xy, int from, int to) {
+        return addPolyline(LevelOfDetail.polyline(xy, from, to));
+    }
+
+    public long addPolyline(LevelOfDetail.Detail polyline) {
+        return addDisplayItem("polyline", packCoords(polyline.getXY(), 0, polyline.size(), false), polyline.getLevels(), null, 0);
+    }
+
+    public long addPolyline(double[] xy) {
+        return addPolyline(xy, 0, xy.length / 2);
+    }
+
+    public long addMarkers(double[] xy, int from, int to, long r) {
+        return addDisplayItem("markers", packCoords(xy, from, to, false), LevelOfDetail.markerLevels(xy, from, to), null, r);
+    }
+
+    public long addMarkers(LevelOfDetail.Detail markers, long r) {
+        return addDisplayItem("markers", packCoords(markers.getXY(), 0, markers.size(), false), markers.getLevels(), null, r);
+    }
+
+    public long addMarkers(double[] xy, long r) {
+        return addMarkers(xy, 0, xy.length / 2, r);
+    }
+
+    public long addRect(Coords coords, Bounds bounds) {
+        double[] rect = {coords.getX(), coords.getY(), bounds.getWidth(), bounds.getHeight()};
+        return addDisplayItem("rect", packCoords(rect, 0, 2, false), null, null, 0);
+    }
+
+    public long addText(CharSequence text, Coords coords) {
+        double[] point = {coords.getX(), coords.getY()};
+        return addDisplayItem("text", packCoords(point, 0, 1, false), null, text.toString(), 0);
+    }
+
+    public void removeItem(long id) {
+        if (!displayItems.remove(id)) return;
+        overlayStatement(OVERLAY + ".removeItem(" + id + ")");
+        update();
+    }
+
+    public void clearItems() {
+        displayItems.clear();
+        overlayStatement(OVERLAY + ".clearItems()");
+        update();
+    }
+
+    public int getItemCount() {
+        return displayItems.size();
+    }
+
+    private long addDisplayItem(String type, String payload, List<LevelOfDetail.Level> levels, String text, long r) {
+        long id = nextDisplayItem++;
+        StringBuilder item = new StringBuilder(OVERLAY).append(".addItem(").append(id)
+                .append(", {type: \"").append(type)
+                .append("\", data: \"").append(payload)
+                .append("\", stroke: ").append(strokePattern != null ? strokePattern.toJS() : "\"#000000\"")
+                .append(", fill: ").append(fillPattern != null ? fillPattern.toJS() : "\"#000000\"")
+                .append(", lineWidth: ").append(lineWidth)
+                .append(", r: ").append(r);
+        if (text != null) item.append(", text: ").append(jsString(text));
+        if (levels != null && !levels.isEmpty()) {
+            item.append(", levels: [");
+            for (int i = 0; i < levels.size(); i++) {
+                LevelOfDetail.Level level = levels.get(i);
+                if (i != 0) item.append(", ");
+                item.append("{cell: ").append(level.getCell())
+                        .append(", data: \"").append(packCoords(level.getXY(), 0, level.size(), false)).append("\"}");
+            }
+            item.append("]");
+        }
+        item.append("})");
+        metrics.primitive("DisplayList." + type);
+        overlayStatement(item.toString());
+        displayItems.add(id);
+        update();
+        return id;
+    }
+
+    private void overlayStatement(String statement) {
+        checkLoaded();
+        if (buffered) {
+            commandBuffer.append(statement).append(";\n");
+            scheduleFlush();
+        } else {
+            executeScript("displayList", statement);
+        }
+    }
+
+    private static String jsString(String value) {
+        StringBuilder escaped = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') escaped.append('\\').append(c);
+            else if (c < 0x20 || c == '\u2028' || c == '\u2029') escaped.append(String.format("\\u%04x", (int) c));
+            else escaped.append(c);
+        }
+        return escaped.append('"').toString();
+    }
+
+    private String packCoords(double[] xy, int from, int to, boolean units) {
+        if (from < 0 || to * 2 > xy.length || from > to) throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), points: " + xy.length / 2);
+        double width = units ? getCanvasWidth() : 1;
+        double height = units ? getCanvasHeight() : 1;
+        ByteBuffer packed = ByteBuffer.allocate((to - from) * 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = from * 2; i < to * 2; i += 2) {
+            packed.putDouble(units ? Math.round(xy[i] * width) : xy[i]);
+            packed.putDouble(units ? Math.round(xy[i + 1] * height) : xy[i + 1]);
+        }
+        return Base64.getEncoder().encodeToString(packed.array());
+    }
+
+    public class OverlayBridge {
+        public void overlayReady(boolean online) {
+            if (onLoad == null) return;
+            metrics.phase(MapViewMetrics.Phase.OVERLAY_READY);
+            offline = !online;
+            onLoad.forEach(Runnable::run);
+            onLoad = null;
+        }
+
+        public void rendererSelected(String renderer) {
+            overlayRenderer = renderer;
+        }
+
+        public void overlayRedrawn(Number millis) {
+            metrics.overlayRedrawn(millis.doubleValue());
+        }
+
+        public void viewportChanged(Number left, Number top, Number width, Number height) {
+            fieldLeft = left.doubleValue();
+            fieldTop = top.doubleValue();
+            fieldWidth = width.doubleValue();
+            fieldHeight = height.doubleValue();
+        }
+
+        public void canvasResized(Number width, Number height) {
+            canvasWidth = width.doubleValue();
+            canvasHeight = height.doubleValue();
+        }
+    }
 
     public WebEngine getWebEngine() {
         checkInit();
@@ -478,6 +831,8 @@ public class MapView extends Region {
 
     public static interface Pattern {
         String toJS();
+
+        javafx.scene.paint.Paint toPaint();
     }
 
     public static class ColoredPattern implements Pattern {
@@ -499,6 +854,44 @@ public class MapView extends Region {
         public String toJS() {
             return "\"" + colorToHex(color) + "\"";
         }
+
+        @Override
+        public javafx.scene.paint.Paint toPaint() {
+            return javafx.scene.paint.Color.rgb(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() / 255.0);
+        }
+    }
+
+    public static class RgbPattern implements Pattern {
+        private final int red, green, blue;
+
+        public RgbPattern(int red, int green, int blue) {
+            if ((red | green | blue) >>> 8 != 0) throw new IllegalArgumentException("Color components out of range: " + red + ", " + green + ", " + blue);
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+        }
+
+        public int getRed() {
+            return red;
+        }
+
+        public int getGreen() {
+            return green;
+        }
+
+        public int getBlue() {
+            return blue;
+        }
+
+        @Override
+        public String toJS() {
+            return String.format(Locale.US, "\"#%02X%02X%02X\"", red, green, blue);
+        }
+
+        @Override
+        public javafx.scene.paint.Paint toPaint() {
+            return javafx.scene.paint.Color.rgb(red, green, blue);
+        }
     }
 
     public static class Bounds {
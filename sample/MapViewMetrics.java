@@ -0,0 +1,358 @@
+package sample;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MapViewMetrics implements MapViewMetricsMXBean {
+    public enum Phase {
+        INIT, PAGE_LOADED, CONNECTIVITY_RESOLVED, OVERLAY_READY, FIRST_FLUSH
+    }
+
+    // Checked before allocating an event: without a recording that wants them, bridge calls stay allocation-free.
+    private static final EventType BRIDGE_CALL_EVENTS = EventType.getEventType(BridgeCallEvent.class);
+    private static final EventType OVERLAY_REDRAW_EVENTS = EventType.getEventType(OverlayRedrawEvent.class);
+
+    private final ConcurrentHashMap<String, LongAdder> primitives = new ConcurrentHashMap<>();
+    private final Histogram bridgeLatency = new Histogram();
+    private final LongAdder redrawRequests = new LongAdder();
+    private final LongAdder coalescedRedraws = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final Histogram overlayRedraws = new Histogram();
+    private final AtomicLongArray phases = new AtomicLongArray(Phase.values().length);
+    private ObjectName objectName = null;
+
+    public void primitive(String name) {
+        primitives.computeIfAbsent(name, key -> new LongAdder()).increment();
+    }
+
+    public Object bridgeCall(String kind, String script, BridgeCall call) {
+        BridgeCallEvent event = BRIDGE_CALL_EVENTS.isEnabled() ? new BridgeCallEvent() : null;
+        if (event != null) event.begin();
+        long start = System.nanoTime();
+        try {
+            return call.run();
+        } finally {
+            bridgeLatency.record(System.nanoTime() - start);
+            if (event != null) event.end();
+            if (event != null && event.shouldCommit()) {
+                event.kind = kind;
+                event.scriptLength = script.length();
+                event.commit();
+            }
+        }
+    }
+
+    public void redrawRequested(boolean coalesced) {
+        redrawRequests.increment();
+        if (coalesced) coalescedRedraws.increment();
+    }
+
+    public void flushed() {
+        flushes.increment();
+        phase(Phase.FIRST_FLUSH);
+    }
+
+    public void overlayRedrawn(double millis) {
+        overlayRedraws.record(Math.round(millis * 1e6));
+        if (!OVERLAY_REDRAW_EVENTS.isEnabled()) return;
+        OverlayRedrawEvent event = new OverlayRedrawEvent();
+        if (event.shouldCommit()) {
+            event.millis = millis;
+            event.commit();
+        }
+    }
+
+    public void phase(Phase phase) {
+        phases.compareAndSet(phase.ordinal(), 0, System.nanoTime());
+    }
+
+    public synchronized void register(String name) {
+        if (objectName != null) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("sample:type=MapView,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            objectName = null;
+            throw new RuntimeException("Could not register MapView metrics", e);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new RuntimeException("Could not unregister MapView metrics", e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getBridgeCalls() {
+        return bridgeLatency.count();
+    }
+
+    @Override
+    public double getBridgeTimeMillis() {
+        return bridgeLatency.total() / 1e6;
+    }
+
+    @Override
+    public double getBridgeLatencyP50Micros() {
+        return bridgeLatency.percentile(0.5) / 1e3;
+    }
+
+    @Override
+    public double getBridgeLatencyP99Micros() {
+        return bridgeLatency.percentile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getBridgeLatencyMaxMicros() {
+        return bridgeLatency.max() / 1e3;
+    }
+
+    @Override
+    public Map<String, Long> getPrimitiveCalls() {
+        Map<String, Long> calls = new TreeMap<>();
+        primitives.forEach((name, count) -> calls.put(name, count.sum()));
+        return calls;
+    }
+
+    @Override
+    public long getRedrawRequests() {
+        return redrawRequests.sum();
+    }
+
+    @Override
+    public long getCoalescedRedraws() {
+        return coalescedRedraws.sum();
+    }
+
+    @Override
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    @Override
+    public long getOverlayRedraws() {
+        return overlayRedraws.count();
+    }
+
+    @Override
+    public double getOverlayRedrawMillis() {
+        return overlayRedraws.total() / 1e6;
+    }
+
+    @Override
+    public double getOverlayRedrawMaxMillis() {
+        return overlayRedraws.max() / 1e6;
+    }
+
+    @Override
+    public Map<String, Double> getPageLoadPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        long init = phases.get(Phase.INIT.ordinal());
+        if (init == 0) return millis;
+        for (Phase phase : Phase.values()) {
+            long time = phases.get(phase.ordinal());
+            if (phase != Phase.INIT && time != 0) millis.put(phase.name(), (time - init) / 1e6);
+        }
+        return millis;
+    }
+
+    @Override
+    public void reset() {
+        primitives.clear();
+        bridgeLatency.reset();
+        redrawRequests.reset();
+        coalescedRedraws.reset();
+        flushes.reset();
+        overlayRedraws.reset();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public interface BridgeCall {
+        Object run();
+    }
+
+    public static class Snapshot {
+        private final long bridgeCalls;
+        private final double bridgeTimeMillis;
+        private final double bridgeLatencyP50Micros, bridgeLatencyP99Micros, bridgeLatencyMaxMicros;
+        private final Map<String, Long> primitiveCalls;
+        private final long redrawRequests, coalescedRedraws, flushes;
+        private final long overlayRedraws;
+        private final double overlayRedrawMillis, overlayRedrawMaxMillis;
+        private final Map<String, Double> pageLoadPhaseMillis;
+
+        private Snapshot(MapViewMetrics metrics) {
+            bridgeCalls = metrics.getBridgeCalls();
+            bridgeTimeMillis = metrics.getBridgeTimeMillis();
+            bridgeLatencyP50Micros = metrics.getBridgeLatencyP50Micros();
+            bridgeLatencyP99Micros = metrics.getBridgeLatencyP99Micros();
+            bridgeLatencyMaxMicros = metrics.getBridgeLatencyMaxMicros();
+            primitiveCalls = Collections.unmodifiableMap(metrics.getPrimitiveCalls());
+            redrawRequests = metrics.getRedrawRequests();
+            coalescedRedraws = metrics.getCoalescedRedraws();
+            flushes = metrics.getFlushes();
+            overlayRedraws = metrics.getOverlayRedraws();
+            overlayRedrawMillis = metrics.getOverlayRedrawMillis();
+            overlayRedrawMaxMillis = metrics.getOverlayRedrawMaxMillis();
+            pageLoadPhaseMillis = Collections.unmodifiableMap(metrics.getPageLoadPhaseMillis());
+        }
+
+        public long getBridgeCalls() {
+            return bridgeCalls;
+        }
+
+        public double getBridgeTimeMillis() {
+            return bridgeTimeMillis;
+        }
+
+        public double getBridgeLatencyP50Micros() {
+            return bridgeLatencyP50Micros;
+        }
+
+        public double getBridgeLatencyP99Micros() {
+            return bridgeLatencyP99Micros;
+        }
+
+        public double getBridgeLatencyMaxMicros() {
+            return bridgeLatencyMaxMicros;
+        }
+
+        public Map<String, Long> getPrimitiveCalls() {
+            return primitiveCalls;
+        }
+
+        public long getRedrawRequests() {
+            return redrawRequests;
+        }
+
+        public long getCoalescedRedraws() {
+            return coalescedRedraws;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+
+        public long getOverlayRedraws() {
+            return overlayRedraws;
+        }
+
+        public double getOverlayRedrawMillis() {
+            return overlayRedrawMillis;
+        }
+
+        public double getOverlayRedrawMaxMillis() {
+            return overlayRedrawMaxMillis;
+        }
+
+        public Map<String, Double> getPageLoadPhaseMillis() {
+            return pageLoadPhaseMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "bridge: %d calls, %.1f ms (p50 %.0f us, p99 %.0f us, max %.0f us)%n" +
+                            "primitives: %s%n" +
+                            "redraws: %d requested, %d coalesced, %d flushes; overlay %d redraws, %.1f ms (max %.2f ms)%n" +
+                            "page load: %s",
+                    bridgeCalls, bridgeTimeMillis, bridgeLatencyP50Micros, bridgeLatencyP99Micros, bridgeLatencyMaxMicros,
+                    primitiveCalls,
+                    redrawRequests, coalescedRedraws, flushes, overlayRedraws, overlayRedrawMillis, overlayRedrawMaxMillis,
+                    pageLoadPhaseMillis
+            );
+        }
+    }
+
+    static class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value) - 1 + (value == 0 ? 1 : 0));
+            count.increment();
+            total.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long total() {
+            return total.sum();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        double percentile(double fraction) {
+            long seen = 0, target = (long) Math.ceil(count.sum() * fraction);
+            if (target == 0) return 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) return Math.min(i == 0 ? 1 : 3L << (i - 1), max.get());
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            count.reset();
+            total.reset();
+            max.set(0);
+        }
+    }
+
+    @Name("sample.MapView.BridgeCall")
+    @Label("MapView Bridge Call")
+    @Category("MapView")
+    static class BridgeCallEvent extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Script Length")
+        int scriptLength;
+    }
+
+    @Name("sample.MapView.OverlayRedraw")
+    @Label("MapView Overlay Redraw")
+    @Category("MapView")
+    static class OverlayRedrawEvent extends Event {
+        @Label("Duration (ms)")
+        double millis;
+    }
+}
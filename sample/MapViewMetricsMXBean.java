@@ -0,0 +1,33 @@
+package sample;
+
+import java.util.Map;
+
+public interface MapViewMetricsMXBean {
+    long getBridgeCalls();
+
+    double getBridgeTimeMillis();
+
+    double getBridgeLatencyP50Micros();
+
+    double getBridgeLatencyP99Micros();
+
+    double getBridgeLatencyMaxMicros();
+
+    Map<String, Long> getPrimitiveCalls();
+
+    long getRedrawRequests();
+
+    long getCoalescedRedraws();
+
+    long getFlushes();
+
+    long getOverlayRedraws();
+
+    double getOverlayRedrawMillis();
+
+    double getOverlayRedrawMaxMillis();
+
+    Map<String, Double> getPageLoadPhaseMillis();
+
+    void reset();
+}
@@ -0,0 +1,75 @@
+package sample;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelRoutePlanner {
+    private static final long STRIP_WAYPOINTS = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelRoutePlanner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelRoutePlanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Route plan(RouteGenerator generator) {
+        if (generator.size() > Integer.MAX_VALUE / 2) throw new IllegalStateException("Route too long to materialize: " + generator.size());
+        double[] coords = new double[(int) generator.size() * 2];
+        long[] strips = strips(generator);
+        if (strips.length == 2) {
+            generator.fill(coords);
+        } else {
+            pool.invoke(new StripTask(generator, coords, strips, 0, strips.length - 1));
+        }
+        return new Route(coords);
+    }
+
+    static long[] strips(RouteGenerator generator) {
+        long pairs = generator.getColumnPairs();
+        if (pairs == 0 || generator.size() <= STRIP_WAYPOINTS) return new long[] {0, generator.size()};
+
+        long pairLength = (generator.getColumnPairStart(pairs) - generator.getColumnPairStart(0)) / pairs;
+        long pairsPerStrip = Math.max(STRIP_WAYPOINTS / Math.max(pairLength, 1), 1);
+        int count = (int) ((pairs + pairsPerStrip - 1) / pairsPerStrip);
+        long[] strips = new long[count + 3];
+        strips[0] = 0;
+        for (int i = 0; i <= count; i++) {
+            strips[i + 1] = generator.getColumnPairStart(Math.min(i * pairsPerStrip, pairs));
+        }
+        strips[count + 2] = generator.size();
+        return strips;
+    }
+
+    @SuppressWarnings("serial")
+    private static class StripTask extends RecursiveAction {
+        private final RouteGenerator generator;
+        private final double[] coords;
+        private final long[] strips;
+        private final int from, to;
+
+        private StripTask(RouteGenerator generator, double[] coords, long[] strips, int from, int to) {
+            this.generator = generator;
+            this.coords = coords;
+            this.strips = strips;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                generator.fill(coords, (int) strips[from] * 2, strips[from], strips[to]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new StripTask(generator, coords, strips, from, middle),
+                    new StripTask(generator, coords, strips, middle, to)
+            );
+        }
+    }
+}
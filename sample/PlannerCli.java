@@ -0,0 +1,27 @@
+package sample;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class PlannerCli {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6 || args.length > 7) {
+            System.err.println("Usage: PlannerCli <focusDistance> <censorHeight> <censorWidth> <height> <fieldHeight> <fieldWidth> [output]");
+            System.exit(2);
+        }
+        double[] params = new double[6];
+        for (int i = 0; i < params.length; i++) params[i] = Double.parseDouble(args[i]);
+
+        RouteGenerator route = RoutePlanner.plan(params[0], params[1], params[2], params[3], params[4], params[5]);
+        try (Writer out = args.length == 7
+                ? Files.newBufferedWriter(Paths.get(args[6]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            RoutePlanner.printRoute(route, out);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package sample;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Replanner implements AutoCloseable {
+    static final long SLICE_NANOS = 6_000_000;
+
+    private final MapRenderer renderer;
+    private final MapView.LatLng origin;
+    private final long debounceMillis;
+    private final Executor fxExecutor;
+    private final ScheduledExecutorService planner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replanner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong(), plans = new AtomicLong(), cancellations = new AtomicLong();
+    private final RouteDrawer.Drawing drawing;
+    private ScheduledFuture<?> pending = null;
+
+    private double fieldHeight, fieldWidth;
+    private long applied = 0, slices = 0, maxSliceNanos = 0;
+
+    public Replanner(MapRenderer renderer, GeoProjection projection) {
+        this(renderer, projection, 50, Platform::runLater);
+    }
+
+    public Replanner(MapRenderer renderer, GeoProjection projection, long debounceMillis, Executor fxExecutor) {
+        this.renderer = renderer;
+        this.origin = projection.getOrigin();
+        this.fieldHeight = projection.getFieldHeight();
+        this.fieldWidth = projection.getFieldWidth();
+        this.debounceMillis = debounceMillis;
+        this.fxExecutor = fxExecutor;
+        this.drawing = new RouteDrawer.Drawing(renderer);
+    }
+
+    public void request(
+            double focusDistance,
+            double photoCensorHeight,
+            double photoCensorWidth,
+            double height,
+            double fieldHeight,
+            double fieldWidth
+    ) {
+        long id = generation.incrementAndGet();
+        requests.incrementAndGet();
+        synchronized (this) {
+            if (pending != null && pending.cancel(true)) cancellations.incrementAndGet();
+            pending = planner.schedule(
+                    () -> plan(id, focusDistance, photoCensorHeight, photoCensorWidth, height, fieldHeight, fieldWidth),
+                    debounceMillis, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    private void plan(long id, double focusDistance, double photoCensorHeight, double photoCensorWidth, double height, double fieldHeight, double fieldWidth) {
+        RouteDrawer.Frame frame = RoutePlanner.prepare(
+                focusDistance, photoCensorHeight, photoCensorWidth, height, fieldHeight, fieldWidth, () -> isStale(id)
+        );
+        if (frame == null || isStale(id)) {
+            cancellations.incrementAndGet();
+            return;
+        }
+        plans.incrementAndGet();
+        fxExecutor.execute(() -> apply(id, frame, fieldHeight, fieldWidth));
+    }
+
+    private boolean isStale(long id) {
+        return generation.get() != id || Thread.currentThread().isInterrupted();
+    }
+
+    private void apply(long id, RouteDrawer.Frame frame, double fieldHeight, double fieldWidth) {
+        if (generation.get() != id) return;
+        long start = System.nanoTime();
+        if (fieldHeight != this.fieldHeight || fieldWidth != this.fieldWidth) {
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+            renderer.setBounds(new GeoProjection(origin, fieldHeight, fieldWidth).getBounds());
+        }
+        boolean done = drawing.apply(frame, start + SLICE_NANOS);
+        renderer.flush();
+        slices++;
+        maxSliceNanos = Math.max(maxSliceNanos, System.nanoTime() - start);
+        if (!done) {
+            fxExecutor.execute(() -> apply(id, frame, fieldHeight, fieldWidth));
+            return;
+        }
+        renderer.setRouteIndex(frame.getIndex());
+        applied++;
+    }
+
+    public RouteDrawer.Drawing getDrawing() {
+        return drawing;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getPlans() {
+        return plans.get();
+    }
+
+    public long getCancellations() {
+        return cancellations.get();
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getSlices() {
+        return slices;
+    }
+
+    public long getMaxSliceNanos() {
+        return maxSliceNanos;
+    }
+
+    @Override
+    public void close() {
+        generation.incrementAndGet();
+        planner.shutdownNow();
+    }
+}
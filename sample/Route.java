@@ -0,0 +1,133 @@
+package sample;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+public class Route {
+    private double[] coords;
+    private int size = 0;
+    private double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+    public Route() {
+        this(16);
+    }
+
+    public Route(int capacity) {
+        coords = new double[Math.max(capacity, 1) * 2];
+    }
+
+    public Route(double[] coords) {
+        this.coords = coords;
+        size = coords.length / 2;
+        updateBounds();
+    }
+
+    public void add(double x, double y) {
+        if (size * 2 == coords.length) {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[size * 2] = x;
+        coords[size * 2 + 1] = y;
+        size++;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return coords[index * 2];
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return coords[index * 2 + 1];
+    }
+
+    // Bounds of the waypoints so far; infinite while the route is empty.
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    // A copy of the interleaved x/y waypoints, exactly size() * 2 long.
+    public double[] getCoordinates() {
+        return Arrays.copyOf(coords, size * 2);
+    }
+
+    // The same waypoints without copying: read-only, and limited to size() * 2 values.
+    public DoubleBuffer getCoordinateView() {
+        return DoubleBuffer.wrap(coords, 0, size * 2).slice().asReadOnlyBuffer();
+    }
+
+    public void swapAxes() {
+        for (int i = 0; i < size * 2; i += 2) {
+            double x = coords[i];
+            coords[i] = coords[i + 1];
+            coords[i + 1] = x;
+        }
+        double min = minX, max = maxX;
+        minX = minY;
+        maxX = maxY;
+        minY = min;
+        maxY = max;
+    }
+
+    // Multiplies every y by flipY, then rotates the route about the origin by the given angle, in place.
+    public void rotate(double radians, double flipY) {
+        double cos = Math.cos(radians), sin = Math.sin(radians);
+        for (int i = 0; i < size * 2; i += 2) {
+            double x = coords[i], y = flipY * coords[i + 1];
+            coords[i] = x * cos - y * sin;
+            coords[i + 1] = x * sin + y * cos;
+        }
+        updateBounds();
+    }
+
+    public double[][] toArray() {
+        double[][] result = new double[size][];
+        for (int i = 0; i < size; i++) {
+            result[i] = new double[] {coords[i * 2], coords[i * 2 + 1]};
+        }
+        return result;
+    }
+
+    private void updateBounds() {
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size * 2; i += 2) {
+            minX = Math.min(minX, coords[i]);
+            maxX = Math.max(maxX, coords[i]);
+            minY = Math.min(minY, coords[i + 1]);
+            maxY = Math.max(maxY, coords[i + 1]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+
+    @Override
+    public String toString() {
+        return "Route{" +
+                "size=" + size +
+                '}';
+    }
+}
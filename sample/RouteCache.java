@@ -0,0 +1,288 @@
+package sample;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Prepared route frames (chunked geometry, detail levels and hit-test index) keyed by the exact footprint and field
+// size, so re-opening or re-planning an identical mission skips RouteDrawer.prepare entirely.
+public class RouteCache {
+    private static final int MAGIC = 0x52544532;
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private static RouteCache shared = null;
+
+    private final long capacityBytes;
+    private final Path directory;
+    private final long diskCapacityBytes;
+    private final LinkedHashMap<Key, RouteDrawer.Frame> frames = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<RouteDrawer.Frame>> inFlight = new HashMap<>();
+    private long bytes = 0, diskBytes = 0;
+    private long hits = 0, diskHits = 0, misses = 0, evictions = 0;
+
+    public RouteCache(long capacityBytes) {
+        this(capacityBytes, null, 0);
+    }
+
+    public RouteCache(long capacityBytes, Path directory, long diskCapacityBytes) {
+        this.capacityBytes = capacityBytes;
+        this.directory = directory;
+        this.diskCapacityBytes = diskCapacityBytes;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                for (Path file : files()) diskBytes += Files.size(file);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not open route cache directory " + directory, e);
+            }
+        }
+    }
+
+    public static synchronized RouteCache shared() {
+        if (shared == null) {
+            String directory = System.getProperty("mapview.routes.cache.dir");
+            shared = new RouteCache(
+                    Long.getLong("mapview.routes.cache.bytes", 256L * 1024 * 1024),
+                    directory != null ? Paths.get(directory) : null,
+                    Long.getLong("mapview.routes.cache.diskBytes", 1024L * 1024 * 1024)
+            );
+        }
+        return shared;
+    }
+
+    // Returns the cached frame, or prepares it with the given planner. A concurrent miss on the same key waits for
+    // the planning already in flight instead of repeating it. A planner that gives up (returns null, as a cancelled
+    // RouteDrawer.prepare does) caches nothing, and callers that were waiting on it plan for themselves.
+    public RouteDrawer.Frame get(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth, Supplier<RouteDrawer.Frame> planner) {
+        Key key = new Key(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        CompletableFuture<RouteDrawer.Frame> planning;
+        while (true) {
+            CompletableFuture<RouteDrawer.Frame> running;
+            synchronized (this) {
+                RouteDrawer.Frame frame = frames.get(key);
+                if (frame != null) {
+                    hits++;
+                    return frame;
+                }
+                running = inFlight.get(key);
+                if (running == null) {
+                    planning = new CompletableFuture<>();
+                    inFlight.put(key, planning);
+                    break;
+                }
+            }
+            RouteDrawer.Frame frame = running.join();
+            if (frame != null) {
+                synchronized (this) {
+                    hits++;
+                }
+                return frame;
+            }
+        }
+
+        RouteDrawer.Frame frame = null;
+        try {
+            frame = load(key);
+            if (frame != null) {
+                synchronized (this) {
+                    diskHits++;
+                }
+            } else {
+                synchronized (this) {
+                    misses++;
+                }
+                frame = planner.get();
+                if (frame != null) persist(key, frame);
+            }
+            if (frame != null) store(key, frame);
+            return frame;
+        } finally {
+            synchronized (this) {
+                inFlight.remove(key);
+            }
+            planning.complete(frame);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    public synchronized void clear() {
+        frames.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "%d routes, %.1f of %.1f MB; %d hits, %d disk hits, %d misses, %d evictions",
+                frames.size(), bytes / 1e6, capacityBytes / 1e6, hits, diskHits, misses, evictions
+        );
+    }
+
+    private static long weight(RouteDrawer.Frame frame) {
+        return frame.getBytes() + ENTRY_OVERHEAD;
+    }
+
+    private synchronized void store(Key key, RouteDrawer.Frame frame) {
+        long weight = weight(frame);
+        if (weight > capacityBytes) return;
+        RouteDrawer.Frame previous = frames.put(key, frame);
+        if (previous != null) bytes -= weight(previous);
+        bytes += weight;
+        Iterator<Map.Entry<Key, RouteDrawer.Frame>> eldest = frames.entrySet().iterator();
+        while (bytes > capacityBytes && eldest.hasNext()) {
+            Map.Entry<Key, RouteDrawer.Frame> entry = eldest.next();
+            if (entry.getKey().equals(key)) continue;
+            bytes -= weight(entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private RouteDrawer.Frame load(Key key) {
+        if (directory == null) return null;
+        Path file = directory.resolve(key.fileName());
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) return null;
+            Key stored = new Key(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+            if (!stored.equals(key)) return null;
+            RouteDrawer.Frame frame = RouteDrawer.Frame.read(in, Files.size(file) - 4 - 4 * 8);
+            if (in.read() != -1) return null;
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return frame;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void persist(Key key, RouteDrawer.Frame frame) {
+        if (directory == null || weight(frame) > diskCapacityBytes) return;
+        Path file = directory.resolve(key.fileName());
+        Path temp = directory.resolve(key.fileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeDouble(key.photoHeight);
+                out.writeDouble(key.photoWidth);
+                out.writeDouble(key.fieldHeight);
+                out.writeDouble(key.fieldWidth);
+                frame.write(out);
+            }
+            long previous = Files.exists(file) ? Files.size(file) : 0;
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                diskBytes += Files.size(file) - previous;
+                if (diskBytes > diskCapacityBytes) trimDisk();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void trimDisk() throws IOException {
+        List<Path> files = files();
+        files.sort(Comparator.comparingLong(file -> {
+            try {
+                return Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                return 0L;
+            }
+        }));
+        for (Path file : files) {
+            if (diskBytes <= diskCapacityBytes) break;
+            long size = Files.size(file);
+            Files.deleteIfExists(file);
+            diskBytes -= size;
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> routes = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().endsWith(".route")).forEach(routes::add);
+            return routes;
+        }
+    }
+
+    private static class Key {
+        private final double photoHeight, photoWidth, fieldHeight, fieldWidth;
+
+        private Key(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+            this.photoHeight = photoHeight;
+            this.photoWidth = photoWidth;
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+        }
+
+        private String fileName() {
+            return String.format("%016x%016x%016x%016x.route",
+                    Double.doubleToLongBits(photoHeight), Double.doubleToLongBits(photoWidth),
+                    Double.doubleToLongBits(fieldHeight), Double.doubleToLongBits(fieldWidth)
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Double.doubleToLongBits(photoHeight) == Double.doubleToLongBits(key.photoHeight)
+                    && Double.doubleToLongBits(photoWidth) == Double.doubleToLongBits(key.photoWidth)
+                    && Double.doubleToLongBits(fieldHeight) == Double.doubleToLongBits(key.fieldHeight)
+                    && Double.doubleToLongBits(fieldWidth) == Double.doubleToLongBits(key.fieldWidth);
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = Double.doubleToLongBits(photoHeight);
+            hash = hash * 31 + Double.doubleToLongBits(photoWidth);
+            hash = hash * 31 + Double.doubleToLongBits(fieldHeight);
+            hash = hash * 31 + Double.doubleToLongBits(fieldWidth);
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
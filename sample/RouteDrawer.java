@@ -0,0 +1,292 @@
+package sample;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+public class RouteDrawer {
+    private static final int CHUNK = 4096;
+    private static final MapView.Pattern START_PATTERN = new MapView.RgbPattern(0, 0, 0);
+    private static final MapView.Pattern WAYPOINT_PATTERN = new MapView.RgbPattern(255, 0, 0);
+
+    public static List<Long> draw(MapRenderer renderer, RouteGenerator route, double height, double width) {
+        Drawing drawing = new Drawing(renderer);
+        drawing.apply(prepare(route, height, width, () -> false), Long.MAX_VALUE);
+        renderer.flush();
+        return drawing.getItemIds();
+    }
+
+    public static Frame prepare(RouteGenerator route, double height, double width, BooleanSupplier cancelled) {
+        if (route.size() > Integer.MAX_VALUE / 2) throw new IllegalStateException("Route too long to draw: " + route.size());
+        if (cancelled.getAsBoolean()) return null;
+        RouteIndex index = new RouteIndex((int) route.size(), 0, 0, 1, 1);
+        if (route.size() == 0) return new Frame(null, new double[0][], new int[0], new LevelOfDetail.Detail[0], new LevelOfDetail.Detail[0], index);
+        double[] start = new double[2];
+        route.fill(start, 0, 1);
+        toUnits(start, 1, height, width);
+        index.add(start[0], start[1]);
+
+        int count = (int) Math.max(0, (route.size() - 2) / (CHUNK - 1) + 1);
+        double[][] chunks = new double[count][];
+        int[] markerEnds = new int[count];
+        LevelOfDetail.Detail[] polylines = new LevelOfDetail.Detail[count], markers = new LevelOfDetail.Detail[count];
+        int chunk = 0;
+        for (long from = 0; from < route.size() - 1; from += CHUNK - 1) {
+            if (cancelled.getAsBoolean()) return null;
+            long to = Math.min(from + CHUNK, route.size());
+            double[] xy = new double[(int) (to - from) * 2];
+            route.fill(xy, from, to);
+            toUnits(xy, (int) (to - from), height, width);
+            // Consecutive chunks share their boundary waypoint, which is already indexed.
+            for (int i = 2; i < xy.length; i += 2) index.add(xy[i], xy[i + 1]);
+            chunks[chunk] = xy;
+            markerEnds[chunk] = (int) (Math.min(to, route.size() - 1) - from);
+            polylines[chunk] = LevelOfDetail.polyline(xy, 0, xy.length / 2);
+            markers[chunk] = markerEnds[chunk] > 1 ? LevelOfDetail.markers(xy, 1, markerEnds[chunk]) : null;
+            chunk++;
+        }
+        if (chunk < count) {
+            chunks = Arrays.copyOf(chunks, chunk);
+            markerEnds = Arrays.copyOf(markerEnds, chunk);
+            polylines = Arrays.copyOf(polylines, chunk);
+            markers = Arrays.copyOf(markers, chunk);
+        }
+        return new Frame(start, chunks, markerEnds, polylines, markers, index);
+    }
+
+    private static void toUnits(double[] xy, int count, double height, double width) {
+        for (int i = 0; i < count * 2; i += 2) {
+            xy[i] = xy[i] / width;
+            xy[i + 1] = 1 - xy[i + 1] / height;
+        }
+    }
+
+    // Everything the FX thread needs to show a route, computed off it: the chunked geometry, each chunk's
+    // simplified polyline and marker levels, and the hit-test index.
+    public static class Frame {
+        private final double[] start;
+        private final LevelOfDetail.Detail startMarker;
+        private final double[][] chunks;
+        private final int[] markerEnds;
+        private final LevelOfDetail.Detail[] polylines, markers;
+        private final RouteIndex index;
+
+        private Frame(double[] start, double[][] chunks, int[] markerEnds, LevelOfDetail.Detail[] polylines, LevelOfDetail.Detail[] markers, RouteIndex index) {
+            this.start = start;
+            this.startMarker = start != null ? LevelOfDetail.markers(start, 0, 1) : null;
+            this.chunks = chunks;
+            this.markerEnds = markerEnds;
+            this.polylines = polylines;
+            this.markers = markers;
+            this.index = index;
+        }
+
+        public int getChunkCount() {
+            return chunks.length;
+        }
+
+        public RouteIndex getIndex() {
+            return index;
+        }
+
+        public long getBytes() {
+            long bytes = index.getBytes();
+            for (int i = 0; i < chunks.length; i++) {
+                bytes += chunks[i].length * 8L + polylines[i].getBytes();
+                if (markers[i] != null) bytes += markers[i].getBytes();
+            }
+            return bytes;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeBoolean(start != null);
+            if (start != null) writeDoubles(out, start);
+            out.writeInt(chunks.length);
+            for (int i = 0; i < chunks.length; i++) {
+                writeDoubles(out, chunks[i]);
+                out.writeInt(markerEnds[i]);
+                writeDetail(out, polylines[i]);
+                out.writeBoolean(markers[i] != null);
+                if (markers[i] != null) writeDetail(out, markers[i]);
+            }
+        }
+
+        // Reads a frame written by write(), refusing any length that would read past the end of the input.
+        static Frame read(DataInputStream in, long available) throws IOException {
+            long[] remaining = {available};
+            double[] start = in.readBoolean() ? readDoubles(in, remaining) : null;
+            int count = readLength(in, remaining, 4);
+            double[][] chunks = new double[count][];
+            int[] markerEnds = new int[count];
+            LevelOfDetail.Detail[] polylines = new LevelOfDetail.Detail[count], markers = new LevelOfDetail.Detail[count];
+            int points = start != null ? 1 : 0;
+            for (int i = 0; i < count; i++) {
+                chunks[i] = readDoubles(in, remaining);
+                markerEnds[i] = in.readInt();
+                if (markerEnds[i] < 0 || markerEnds[i] > chunks[i].length / 2) throw new IOException("Bad marker range: " + markerEnds[i]);
+                polylines[i] = readDetail(in, remaining);
+                markers[i] = in.readBoolean() ? readDetail(in, remaining) : null;
+                points += Math.max(0, chunks[i].length / 2 - 1);
+            }
+            RouteIndex index = new RouteIndex(points, 0, 0, 1, 1);
+            if (start != null) index.add(start[0], start[1]);
+            for (double[] xy : chunks) {
+                for (int i = 2; i < xy.length; i += 2) index.add(xy[i], xy[i + 1]);
+            }
+            return new Frame(start, chunks, markerEnds, polylines, markers, index);
+        }
+
+        private static void writeDetail(DataOutputStream out, LevelOfDetail.Detail detail) throws IOException {
+            writeDoubles(out, detail.getXY());
+            out.writeInt(detail.getLevels().size());
+            for (LevelOfDetail.Level level : detail.getLevels()) {
+                out.writeDouble(level.getCell());
+                writeDoubles(out, level.getXY());
+            }
+        }
+
+        private static LevelOfDetail.Detail readDetail(DataInputStream in, long[] remaining) throws IOException {
+            double[] xy = readDoubles(in, remaining);
+            int count = readLength(in, remaining, 12);
+            List<LevelOfDetail.Level> levels = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double cell = in.readDouble();
+                levels.add(new LevelOfDetail.Level(cell, readDoubles(in, remaining)));
+            }
+            return new LevelOfDetail.Detail(xy, levels);
+        }
+
+        private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+            out.writeInt(values.length);
+            for (double value : values) out.writeDouble(value);
+        }
+
+        private static double[] readDoubles(DataInputStream in, long[] remaining) throws IOException {
+            double[] values = new double[readLength(in, remaining, 8)];
+            for (int i = 0; i < values.length; i++) values[i] = in.readDouble();
+            return values;
+        }
+
+        private static int readLength(DataInputStream in, long[] remaining, int elementBytes) throws IOException {
+            int length = in.readInt();
+            remaining[0] -= 4;
+            if (length < 0 || (long) length * elementBytes > remaining[0]) throw new IOException("Bad length: " + length);
+            remaining[0] -= (long) length * elementBytes;
+            return length;
+        }
+    }
+
+    public static class Drawing {
+        private final MapRenderer renderer;
+        private final List<Chunk> chunks = new ArrayList<>();
+        private long rect = -1, start = -1;
+        private double[] startPoint = null;
+        private Frame target = null;
+        private int cursor = 0;
+        private long addedChunks = 0, removedChunks = 0, keptChunks = 0;
+
+        public Drawing(MapRenderer renderer) {
+            this.renderer = renderer;
+        }
+
+        public boolean apply(Frame frame, long deadlineNanos) {
+            if (frame != target) {
+                target = frame;
+                cursor = 0;
+            }
+            if (rect < 0) {
+                renderer.setLineWidth(5);
+                rect = renderer.addRect(new MapView.Coords(0, 0), new MapView.Bounds(1, 1));
+            }
+            if (!Arrays.equals(startPoint, frame.start)) {
+                if (start >= 0) renderer.removeItem(start);
+                start = -1;
+                startPoint = frame.start;
+                if (startPoint != null) {
+                    renderer.setFillPattern(START_PATTERN);
+                    start = renderer.addMarkers(frame.startMarker, 10);
+                }
+            }
+
+            int end = Math.max(chunks.size(), frame.chunks.length);
+            for (; cursor < end; cursor++) {
+                if (System.nanoTime() > deadlineNanos) return false;
+                Chunk current = cursor < chunks.size() ? chunks.get(cursor) : null;
+                if (cursor >= frame.chunks.length) {
+                    if (current != null) {
+                        current.remove(renderer);
+                        chunks.set(cursor, null);
+                        removedChunks++;
+                    }
+                    continue;
+                }
+                double[] xy = frame.chunks[cursor];
+                int markersEnd = frame.markerEnds[cursor];
+                if (current != null) {
+                    if (current.markersEnd == markersEnd && Arrays.equals(current.xy, xy)) {
+                        keptChunks++;
+                        continue;
+                    }
+                    current.remove(renderer);
+                    removedChunks++;
+                }
+                renderer.setFillPattern(WAYPOINT_PATTERN);
+                long polyline = renderer.addPolyline(frame.polylines[cursor]);
+                long markers = frame.markers[cursor] != null ? renderer.addMarkers(frame.markers[cursor], 10) : -1;
+                Chunk chunk = new Chunk(xy, markersEnd, polyline, markers);
+                if (cursor < chunks.size()) chunks.set(cursor, chunk);
+                else chunks.add(chunk);
+                addedChunks++;
+            }
+            while (chunks.size() > frame.chunks.length) chunks.remove(chunks.size() - 1);
+            target = null;
+            return true;
+        }
+
+        public List<Long> getItemIds() {
+            List<Long> items = new ArrayList<>();
+            if (rect >= 0) items.add(rect);
+            if (start >= 0) items.add(start);
+            for (Chunk chunk : chunks) {
+                if (chunk == null) continue;
+                items.add(chunk.polyline);
+                if (chunk.markers >= 0) items.add(chunk.markers);
+            }
+            return items;
+        }
+
+        public long getAddedChunks() {
+            return addedChunks;
+        }
+
+        public long getRemovedChunks() {
+            return removedChunks;
+        }
+
+        public long getKeptChunks() {
+            return keptChunks;
+        }
+    }
+
+    private static class Chunk {
+        private final double[] xy;
+        private final int markersEnd;
+        private final long polyline, markers;
+
+        private Chunk(double[] xy, int markersEnd, long polyline, long markers) {
+            this.xy = xy;
+            this.markersEnd = markersEnd;
+            this.polyline = polyline;
+            this.markers = markers;
+        }
+
+        private void remove(MapRenderer renderer) {
+            renderer.removeItem(polyline);
+            if (markers >= 0) renderer.removeItem(markers);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package sample;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class RouteExporter {
+    public static final int MAGIC = 0x52544231;
+    public static final int HEADER = 4 + 4 + 8 + 8 + 8;
+    public static final int FLOAT32 = 1;
+
+    private static final int CHUNK = 4096;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    private static final byte[] TAB = {'\t'};
+    private static final byte[] MISSION_WAYPOINT = ascii("\t0\t3\t16\t0\t0\t0\t0\t");
+    private static final byte[] MISSION_END = ascii("\t1\n");
+    private static final byte[] JSON_OPEN = ascii("[");
+    private static final byte[] JSON_NEXT = ascii(",[");
+    private static final byte[] JSON_CLOSE = ascii("]");
+    private static final byte[] COMMA = ascii(",");
+    private static final byte[] SPACE = ascii(" ");
+
+    public static void writeBinary(RouteGenerator route, double fieldHeight, double fieldWidth, Path path, boolean float32) throws IOException {
+        int coordinateBytes = float32 ? 4 : 8;
+        long size = HEADER + route.size() * 2 * coordinateBytes;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            header.order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(float32 ? FLOAT32 : 0)
+                    .putLong(route.size()).putDouble(fieldHeight).putDouble(fieldWidth);
+
+            double[] chunk = new double[(int) Math.min(CHUNK, route.size()) * 2];
+            float[] floats = float32 ? new float[chunk.length] : null;
+            long windowWaypoints = MAP_WINDOW / (2 * coordinateBytes);
+            for (long windowStart = 0; windowStart < route.size(); windowStart += windowWaypoints) {
+                long windowEnd = Math.min(windowStart + windowWaypoints, route.size());
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER + windowStart * 2 * coordinateBytes, (windowEnd - windowStart) * 2 * coordinateBytes
+                ).order(ByteOrder.LITTLE_ENDIAN);
+                for (long start = windowStart; start < windowEnd; start += CHUNK) {
+                    long end = Math.min(start + CHUNK, windowEnd);
+                    int length = (int) (end - start) * 2;
+                    route.fill(chunk, start, end);
+                    if (float32) {
+                        for (int i = 0; i < length; i++) floats[i] = (float) chunk[i];
+                        window.asFloatBuffer().put(floats, 0, length);
+                    } else {
+                        window.asDoubleBuffer().put(chunk, 0, length);
+                    }
+                    window.position(window.position() + length * coordinateBytes);
+                }
+            }
+            if (channel.size() != size) throw new IOException("Binary route " + path + " has " + channel.size() + " bytes, expected " + size);
+        }
+    }
+
+    public static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel, path);
+        }
+    }
+
+    public static Route readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, path);
+            if (header.count > Integer.MAX_VALUE / 2) throw new IOException("Route too long to materialize: " + header.count);
+            double[] coords = new double[(int) header.count * 2];
+            int coordinateBytes = header.float32 ? 4 : 8;
+            long windowCoords = MAP_WINDOW / coordinateBytes;
+            for (long start = 0; start < coords.length; start += windowCoords) {
+                int length = (int) Math.min(windowCoords, coords.length - start);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + start * coordinateBytes, (long) length * coordinateBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                if (header.float32) {
+                    FloatBuffer floats = window.asFloatBuffer();
+                    for (int i = 0; i < length; i++) coords[(int) start + i] = floats.get(i);
+                } else {
+                    window.asDoubleBuffer().get(coords, (int) start, length);
+                }
+            }
+            return new Route(coords);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, Path path) throws IOException {
+        if (channel.size() < HEADER) throw new IOException("Not a binary route: " + path);
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a binary route: " + path);
+        boolean float32 = (buffer.getInt() & FLOAT32) != 0;
+        Header header = new Header(buffer.getLong(), buffer.getDouble(), buffer.getDouble(), float32);
+        if (channel.size() != HEADER + header.count * 2 * (float32 ? 4 : 8)) throw new IOException("Binary route truncated: " + path);
+        return header;
+    }
+
+    public static void exportMission(RouteGenerator route, GeoProjection projection, double altitude, WritableByteChannel channel) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            out.write(ascii("QGC WPL 110\n"));
+            double[] home = new double[2];
+            if (route.size() > 0) route.fill(home, 0, 1);
+            projection.metresToLngLat(home, 0, home, 0, 1);
+            out.write(ascii("0\t1\t0\t16\t0\t0\t0\t0\t"));
+            out.fixed(home[1], 7).write(TAB).fixed(home[0], 7).write(TAB).fixed(0, 2);
+            out.write(MISSION_END);
+            long[] sequence = {1};
+            forEachChunk(route, projection, (chunk, length) -> {
+                for (int i = 0; i < length; i += 2) {
+                    out.number(sequence[0]++).write(MISSION_WAYPOINT)
+                            .fixed(chunk[i + 1], 7).write(TAB)
+                            .fixed(chunk[i], 7).write(TAB)
+                            .fixed(altitude, 2).write(MISSION_END);
+                }
+            });
+        }
+    }
+
+    public static void exportGeoJson(RouteGenerator route, GeoProjection projection, WritableByteChannel channel) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            out.write(ascii("{\"type\":\"Feature\",\"properties\":{\"waypoints\":")).number(route.size())
+                    .write(ascii("},\"geometry\":{\"type\":\"LineString\",\"coordinates\":["));
+            boolean[] first = {true};
+            forEachChunk(route, projection, (chunk, length) -> {
+                for (int i = 0; i < length; i += 2) {
+                    out.write(first[0] ? JSON_OPEN : JSON_NEXT)
+                            .fixed(chunk[i], 7).write(COMMA)
+                            .fixed(chunk[i + 1], 7).write(JSON_CLOSE);
+                    first[0] = false;
+                }
+            });
+            out.write(ascii("]}}\n"));
+        }
+    }
+
+    public static void exportKml(RouteGenerator route, GeoProjection projection, double altitude, WritableByteChannel channel) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            out.write(ascii("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document><Placemark><name>Route</name>"
+                    + "<LineString><altitudeMode>relativeToGround</altitudeMode><coordinates>\n"));
+            forEachChunk(route, projection, (chunk, length) -> {
+                for (int i = 0; i < length; i += 2) {
+                    out.fixed(chunk[i], 7).write(COMMA)
+                            .fixed(chunk[i + 1], 7).write(COMMA)
+                            .fixed(altitude, 2).write(SPACE);
+                }
+            });
+            out.write(ascii("\n</coordinates></LineString></Placemark></Document></kml>\n"));
+        }
+    }
+
+    private static void forEachChunk(RouteGenerator route, GeoProjection projection, ChunkSink sink) throws IOException {
+        double[] chunk = new double[(int) Math.min(CHUNK, route.size()) * 2];
+        for (long start = 0; start < route.size(); start += CHUNK) {
+            long end = Math.min(start + CHUNK, route.size());
+            route.fill(chunk, start, end);
+            projection.metresToLngLat(chunk, 0, chunk, 0, (int) (end - start));
+            sink.accept(chunk, (int) (end - start) * 2);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private interface ChunkSink {
+        void accept(double[] chunk, int length) throws IOException;
+    }
+
+    public static class Header {
+        private final long count;
+        private final double fieldHeight, fieldWidth;
+        private final boolean float32;
+
+        private Header(long count, double fieldHeight, double fieldWidth, boolean float32) {
+            this.count = count;
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+            this.float32 = float32;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getFieldHeight() {
+            return fieldHeight;
+        }
+
+        public double getFieldWidth() {
+            return fieldWidth;
+        }
+
+        public boolean isFloat32() {
+            return float32;
+        }
+    }
+
+    static class ChannelWriter implements Closeable {
+        private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final byte[] digits = new byte[20];
+
+        ChannelWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        ChannelWriter write(byte[] bytes) throws IOException {
+            if (buffer.remaining() < bytes.length) drain();
+            if (bytes.length > buffer.capacity()) {
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) channel.write(wrapped);
+            } else {
+                buffer.put(bytes);
+            }
+            return this;
+        }
+
+        ChannelWriter number(long value) throws IOException {
+            if (buffer.remaining() < 21) drain();
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) return write(ascii(Long.toString(value)));
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            int position = digits.length;
+            do {
+                digits[--position] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            buffer.put(digits, position, digits.length - position);
+            return this;
+        }
+
+        ChannelWriter fixed(double value, int decimals) throws IOException {
+            double scaled = Math.abs(value) * POWERS[decimals];
+            if (!(scaled < 9e18)) return write(ascii(Double.toString(value)));
+            long rounded = Math.round(scaled);
+            if (value < 0 && rounded != 0) {
+                if (buffer.remaining() < 1) drain();
+                buffer.put((byte) '-');
+            }
+            number(rounded / POWERS[decimals]);
+            if (decimals == 0) return this;
+            if (buffer.remaining() < decimals + 1) drain();
+            buffer.put((byte) '.');
+            long fraction = rounded % POWERS[decimals];
+            for (int i = decimals - 1; i >= 0; i--) {
+                buffer.put((byte) ('0' + fraction / POWERS[i] % 10));
+            }
+            return this;
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain();
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package sample;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleUnaryOperator;
+
+public class RouteGenerator {
+    private static final int CHUNK = 1024;
+
+    private final double photoHeight, photoWidth, fieldHeight, fieldWidth;
+    private final double minX, minY, maxX, maxY;
+    private final boolean invert, odd;
+    private final long h, w, inner;
+    private final long rights, pairs, pairRegion, size;
+    private final long column;
+
+    // The simulator walks the field with x += photoWidth / y -= photoHeight and clamps after every step,
+    // so each coordinate is the end of a chain of rounded additions rather than base + k * step.
+    private final Chain row, left;
+    private final Orbit pairStarts;
+    private final Chain[] pairUps, pairDowns;
+    private final Chain oddUp, oddDown;
+    private final Orbit tailRights;
+
+    public RouteGenerator(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        long h = (long) Math.ceil(fieldHeight / photoHeight);
+        long w = (long) Math.ceil(fieldWidth / photoWidth);
+        odd = h % 2 != 0 && w % 2 != 0;
+        invert = h % 2 == 0;
+        if (invert) {
+            this.photoHeight = photoWidth;
+            this.photoWidth = photoHeight;
+            this.fieldHeight = fieldWidth;
+            this.fieldWidth = fieldHeight;
+            this.h = w;
+            this.w = h;
+        } else {
+            this.photoHeight = photoHeight;
+            this.photoWidth = photoWidth;
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+            this.h = h;
+            this.w = w;
+        }
+
+        minY = this.photoHeight / 2;
+        minX = this.photoWidth / 2;
+        maxY = this.fieldHeight - this.photoHeight / 2;
+        maxX = this.fieldWidth - this.photoWidth / 2;
+        rights = Math.max(this.w, 1);
+
+        inner = Math.max(this.h - 2, 0);
+        pairs = odd ? Math.max((this.w - 3) / 2, 0) : this.w / 2;
+        pairRegion = pairs > 0 ? (2 * inner + 1) + (pairs - 1) * (2 * inner + 2) : 0;
+        column = pairs > 0 ? 2 * pairs : 1;
+
+        if (this.h == 1) {
+            size = rights + 1;
+        } else {
+            size = rights + 1 + pairRegion + (odd ? 3 * this.h - 3 : 0) + 1;
+        }
+
+        row = new Chain(clampX(0), this.photoWidth, minX, maxX, rights - 1);
+        left = new Chain(row.last(), -this.photoWidth, minX, maxX, this.h == 1 ? 0 : odd ? column + 2 : 2 * pairs);
+        if (this.h == 1) {
+            pairStarts = null;
+            pairUps = pairDowns = new Chain[0];
+            oddUp = oddDown = null;
+            tailRights = null;
+            return;
+        }
+
+        pairStarts = new Orbit(clampY(minY + this.photoHeight), start -> pairDown(pairUp(start).last()).last(), odd ? pairs + 1 : pairs);
+        pairUps = new Chain[pairStarts.distinct()];
+        pairDowns = new Chain[pairStarts.distinct()];
+        for (int id = 0; id < pairUps.length; id++) {
+            pairUps[id] = pairUp(pairStarts.value(id));
+            pairDowns[id] = pairDown(pairUps[id].last());
+        }
+
+        if (odd) {
+            oddUp = pairUp(pairStarts.get(pairs));
+            oddDown = new Chain(oddUp.last(), -this.photoHeight, minY, maxY, this.h - 2);
+            tailRights = new Orbit(clampX(left.get(column + 2) + this.photoWidth), x -> clampX(clampX(x - this.photoWidth) + this.photoWidth), (this.h - 1) / 2);
+        } else {
+            oddUp = oddDown = null;
+            tailRights = null;
+        }
+    }
+
+    private Chain pairUp(double start) {
+        return new Chain(start, photoHeight, minY, maxY, inner);
+    }
+
+    private Chain pairDown(double top) {
+        return new Chain(top, -photoHeight, minY, maxY, inner);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long getColumnPairs() {
+        return pairs;
+    }
+
+    public long getColumnPairStart(long pair) {
+        if (pair < 0 || pair > pairs) throw new IndexOutOfBoundsException("Pair: " + pair + ", pairs: " + pairs);
+        long start = rights + 1;
+        if (pair == 0) return start;
+        return start + (2 * inner + 1) + (pair - 1) * (2 * inner + 2);
+    }
+
+    public boolean isInverted() {
+        return invert;
+    }
+
+    public double getX(long index) {
+        return coordinate(index, invert);
+    }
+
+    public double getY(long index) {
+        return coordinate(index, !invert);
+    }
+
+    public void fill(double[] coords) {
+        fill(coords, 0, size);
+    }
+
+    public void fill(double[] coords, long from, long to) {
+        fill(coords, 0, from, to);
+    }
+
+    public void fill(double[] coords, int offset, long from, long to) {
+        if (from < 0 || to > size || from > to) throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), size: " + size);
+        if (offset < 0 || offset + (to - from) * 2 > coords.length) throw new IllegalArgumentException("Array too small for " + (to - from) + " waypoints at offset " + offset + ": " + coords.length);
+        Filler filler = new Filler(coords, offset, from, to);
+        filler.row(row, minY, rights);
+        if (h != 1) {
+            filler.point(row.last(), pairStarts.get(0));
+            if (pairs > 0) {
+                filler.column(left.get(0), pairUps[0], 1, inner);
+                filler.point(left.get(1), pairUps[0].last());
+                filler.column(left.get(1), pairDowns[0], 1, inner);
+            }
+            long k = 1;
+            if (filler.next < from && pairs > 1) {
+                long skipped = Math.min((from - filler.next) / (2 * inner + 2), pairs - 1);
+                filler.next += skipped * (2 * inner + 2);
+                k += skipped;
+            }
+            for (; k < pairs && filler.next < to; k++) {
+                int id = pairStarts.id(k);
+                filler.point(left.get(2 * k), pairStarts.value(id));
+                filler.column(left.get(2 * k), pairUps[id], 1, inner);
+                filler.point(left.get(2 * k + 1), pairUps[id].last());
+                filler.column(left.get(2 * k + 1), pairDowns[id], 1, inner);
+            }
+            filler.next = Math.max(filler.next, getColumnPairStart(pairs));
+            if (odd) {
+                filler.point(left.get(column), oddUp.get(0));
+                filler.column(left.get(column), oddUp, 1, h - 2);
+                filler.point(left.get(column + 1), oddUp.last());
+                filler.tail();
+            }
+        }
+        filler.point(minX, minY);
+    }
+
+    public void forEach(WaypointSink sink) {
+        forEach(0, size, sink);
+    }
+
+    public void forEach(long from, long to, WaypointSink sink) {
+        double[] chunk = new double[(int) Math.min(CHUNK, to - from) * 2];
+        for (long start = from; start < to; start += CHUNK) {
+            long end = Math.min(start + CHUNK, to);
+            fill(chunk, start, end);
+            for (long i = start; i < end; i++) {
+                int offset = (int) (i - start) * 2;
+                sink.accept(i, chunk[offset], chunk[offset + 1]);
+            }
+        }
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private final double[] chunk = new double[(int) Math.min(CHUNK, size) * 2];
+            private long chunkStart = 0, chunkEnd = 0;
+            private long position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size * 2;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) throw new NoSuchElementException();
+                long waypoint = position / 2;
+                if (waypoint >= chunkEnd) {
+                    chunkStart = waypoint;
+                    chunkEnd = Math.min(waypoint + CHUNK, size);
+                    fill(chunk, chunkStart, chunkEnd);
+                }
+                return chunk[(int) (position++ - chunkStart * 2)];
+            }
+        };
+    }
+
+    public double getLength() {
+        double[] length = {0};
+        double[] previous = new double[2];
+        forEach((index, x, y) -> {
+            if (index != 0) length[0] += Math.hypot(x - previous[0], y - previous[1]);
+            previous[0] = x;
+            previous[1] = y;
+        });
+        return length[0];
+    }
+
+    public Route toRoute() {
+        if (size > Integer.MAX_VALUE / 2) throw new IllegalStateException("Route too long to materialize: " + size);
+        double[] coords = new double[(int) size * 2];
+        fill(coords);
+        return new Route(coords);
+    }
+
+    private double coordinate(long index, boolean vertical) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        double x, y;
+        long i = index;
+        if (i < rights) {
+            x = row.get(i);
+            y = minY;
+        } else if (i == size - 1) {
+            x = minX;
+            y = minY;
+        } else if (i == rights) {
+            x = row.last();
+            y = pairStarts.get(0);
+        } else {
+            if (i < rights + 1 + pairRegion) {
+                // Pair 0 has no start point of its own (it is the turn off the row), so its offsets begin at 1.
+                long k = i < getColumnPairStart(1) ? 0 : 1 + (i - getColumnPairStart(1)) / (2 * inner + 2);
+                long o = i - getColumnPairStart(k) + (k == 0 ? 1 : 0);
+                int id = pairStarts.id(k);
+                if (o <= inner) {
+                    x = left.get(2 * k);
+                    y = pairUps[id].get(o);
+                } else {
+                    x = left.get(2 * k + 1);
+                    y = pairDowns[id].get(o - inner - 1);
+                }
+            } else {
+                i -= rights + 1 + pairRegion;
+                if (i < h - 1) {
+                    x = left.get(column);
+                    y = oddUp.get(i);
+                } else if (i == h - 1) {
+                    x = left.get(column + 1);
+                    y = oddUp.last();
+                } else {
+                    long z = i - h;
+                    if (z < 3) {
+                        x = z < 2 ? left.get(column + 2) : tailRights.get(0);
+                        y = oddDown.get(z == 0 ? 0 : 1);
+                    } else {
+                        z -= 3;
+                        long turn = 1 + z / 4;
+                        double right = tailRights.get(turn);
+                        double previous = tailRights.get(turn - 1);
+                        x = z % 4 == 0 ? previous : z % 4 == 3 ? right : clampX(previous - photoWidth);
+                        y = oddDown.get(2 * turn + (z % 4 < 2 ? 0 : 1));
+                    }
+                }
+            }
+        }
+        return vertical ? y : x;
+    }
+
+    public interface WaypointSink {
+        void accept(long index, double x, double y);
+    }
+
+    private class Filler {
+        private final double[] coords;
+        private final int origin;
+        private final long from, to;
+        private long next = 0;
+
+        private Filler(double[] coords, int origin, long from, long to) {
+            this.coords = coords;
+            this.origin = origin;
+            this.from = from;
+            this.to = to;
+        }
+
+        private void point(double x, double y) {
+            if (next >= from && next < to) {
+                int offset = origin + (int) (next - from) * 2;
+                coords[offset] = invert ? y : x;
+                coords[offset + 1] = invert ? x : y;
+            }
+            next++;
+        }
+
+        private void row(Chain xs, double y, long length) {
+            long start = Math.max(from - next, 0), end = Math.min(to - next, length);
+            int offset = origin + (int) (next + start - from) * 2;
+            int xOffset = invert ? 1 : 0, yOffset = invert ? 0 : 1;
+            double x = start < end ? xs.get(start) : 0;
+            for (long j = start; j < end; j++, offset += 2) {
+                coords[offset + xOffset] = x;
+                coords[offset + yOffset] = y;
+                x = xs.next(x);
+            }
+            next += length;
+        }
+
+        private void column(double x, Chain ys, long first, long length) {
+            long start = Math.max(from - next, 0), end = Math.min(to - next, length);
+            int offset = origin + (int) (next + start - from) * 2;
+            int xOffset = invert ? 1 : 0, yOffset = invert ? 0 : 1;
+            double y = start < end ? ys.get(first + start) : 0;
+            for (long j = start; j < end; j++, offset += 2) {
+                coords[offset + xOffset] = x;
+                coords[offset + yOffset] = y;
+                y = ys.next(y);
+            }
+            next += length;
+        }
+
+        private void tail() {
+            double firstLeft = left.get(column + 2);
+            point(firstLeft, oddDown.get(0));
+            point(firstLeft, oddDown.get(1));
+            point(tailRights.get(0), oddDown.get(1));
+            long turns = (h - 1) / 2, turn = 1;
+            if (next < from && turns > 1) {
+                long skipped = Math.min((from - next) / 4, turns - 1);
+                next += skipped * 4;
+                turn += skipped;
+            }
+            double down = turn < turns && next < to ? oddDown.get(2 * turn - 1) : 0;
+            for (; turn < turns && next < to; turn++) {
+                double previous = tailRights.get(turn - 1), right = tailRights.get(turn);
+                double turnLeft = clampX(previous - photoWidth);
+                double upper = oddDown.next(down), lower = oddDown.next(upper);
+                point(previous, upper);
+                point(turnLeft, upper);
+                point(turnLeft, lower);
+                point(right, lower);
+                down = lower;
+            }
+            next = Math.max(next, size - 1);
+        }
+    }
+
+    private double clampX(double x) {
+        return Math.max(Math.min(x, maxX), minX);
+    }
+
+    private double clampY(double y) {
+        return Math.max(Math.min(y, maxY), minY);
+    }
+
+    // A chain is one row or column of the field, so it is short next to the route: every value is kept and get() is
+    // a lookup. Only a chain too long for that (a one-row route millions of photos wide) keeps every 256th value.
+    private static class Chain {
+        private static final long DENSE = 1 << 20;
+
+        private final double step, min, max;
+        private final int checkpoint;
+        private final double[] checkpoints;
+        private final double last;
+
+        private Chain(double start, double step, double min, double max, long length) {
+            this.step = step;
+            this.min = min;
+            this.max = max;
+            checkpoint = length <= DENSE ? 1 : 256;
+            checkpoints = new double[(int) (Math.max(length, 0) / checkpoint) + 1];
+            double value = start;
+            checkpoints[0] = value;
+            for (long k = 1; k <= length; k++) {
+                value = next(value);
+                if (k % checkpoint == 0) checkpoints[(int) (k / checkpoint)] = value;
+            }
+            last = value;
+        }
+
+        private double next(double value) {
+            return Math.max(Math.min(value + step, max), min);
+        }
+
+        private double get(long steps) {
+            double value = checkpoints[(int) (steps / checkpoint)];
+            for (long k = steps - steps % checkpoint; k < steps; k++) value = next(value);
+            return value;
+        }
+
+        private double last() {
+            return last;
+        }
+    }
+
+    // Values seeded by one step of the simulator and advanced by the next, such as the start of each
+    // column pair. They settle after a step or two, so only the distinct ones up to the first repeat are kept.
+    private static class Orbit {
+        private double[] values = new double[4];
+        private int count = 0, cycleStart = 0;
+
+        private Orbit(double seed, DoubleUnaryOperator next, long needed) {
+            Map<Long, Integer> seen = new HashMap<>();
+            double value = seed;
+            while (count < Math.max(needed, 1)) {
+                Integer repeat = seen.putIfAbsent(Double.doubleToLongBits(value), count);
+                if (repeat != null) {
+                    cycleStart = repeat;
+                    break;
+                }
+                if (count == values.length) values = Arrays.copyOf(values, count * 2);
+                values[count++] = value;
+                cycleStart = count;
+                value = next.applyAsDouble(value);
+            }
+        }
+
+        private int distinct() {
+            return count;
+        }
+
+        private int id(long index) {
+            if (index < count) return (int) index;
+            return (int) (cycleStart + (index - cycleStart) % (count - cycleStart));
+        }
+
+        private double value(int id) {
+            return values[id];
+        }
+
+        private double get(long index) {
+            return values[id(index)];
+        }
+    }
+}
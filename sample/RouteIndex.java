@@ -0,0 +1,133 @@
+package sample;
+
+import java.util.Arrays;
+
+public class RouteIndex {
+    private static final int MAX_CELLS = 2048;
+
+    private final double[] xy;
+    private final int[] next;
+    private final int[] head;
+    private final int columns, rows;
+    private final double minX, minY, cellWidth, cellHeight;
+    private int size = 0;
+
+    public RouteIndex(int capacity, double minX, double minY, double maxX, double maxY) {
+        xy = new double[capacity * 2];
+        next = new int[capacity];
+        int cells = (int) Math.max(1, Math.min(Math.ceil(Math.sqrt(capacity / 2.0)), MAX_CELLS));
+        columns = cells;
+        rows = cells;
+        this.minX = minX;
+        this.minY = minY;
+        cellWidth = maxX > minX ? (maxX - minX) / columns : 1;
+        cellHeight = maxY > minY ? (maxY - minY) / rows : 1;
+        head = new int[columns * rows];
+        Arrays.fill(head, -1);
+    }
+
+    public static RouteIndex build(RouteGenerator route, double height, double width) {
+        if (route.size() > Integer.MAX_VALUE / 2) throw new IllegalStateException("Route too long to index: " + route.size());
+        RouteIndex index = new RouteIndex((int) route.size(), 0, 0, 1, 1);
+        route.forEach((i, x, y) -> index.add(x / width, 1 - y / height));
+        return index;
+    }
+
+    public int add(double x, double y) {
+        if (size == next.length) throw new IllegalStateException("Index is full: " + size);
+        int i = size++;
+        xy[i * 2] = x;
+        xy[i * 2 + 1] = y;
+        int cell = column(x) + row(y) * columns;
+        next[i] = head[cell];
+        head[cell] = i;
+        return i;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getBytes() {
+        return xy.length * 8L + next.length * 4L + head.length * 4L;
+    }
+
+    public double getX(int i) {
+        return xy[i * 2];
+    }
+
+    public double getY(int i) {
+        return xy[i * 2 + 1];
+    }
+
+    public int[] query(double minX, double minY, double maxX, double maxY) {
+        int[] found = new int[16];
+        int count = 0;
+        int fromColumn = column(minX), toColumn = column(maxX);
+        int fromRow = row(minY), toRow = row(maxY);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                for (int i = head[column + row * columns]; i >= 0; i = next[i]) {
+                    double x = xy[i * 2], y = xy[i * 2 + 1];
+                    if (x < minX || x > maxX || y < minY || y > maxY) continue;
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = i;
+                }
+            }
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    public int nearest(double x, double y) {
+        return nearest(x, y, 1, 1);
+    }
+
+    public int nearest(double x, double y, double scaleX, double scaleY) {
+        return nearest(x, y, scaleX, scaleY, Double.POSITIVE_INFINITY);
+    }
+
+    public int hitTest(double x, double y, double radius, double scaleX, double scaleY) {
+        return nearest(x, y, scaleX, scaleY, radius);
+    }
+
+    private int nearest(double x, double y, double scaleX, double scaleY, double maxDistance) {
+        if (size == 0) return -1;
+        int centerColumn = column(x), centerRow = row(y);
+        int best = -1;
+        double bestDistance = maxDistance;
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rows) continue;
+                boolean edge = row == centerRow - ring || row == centerRow + ring;
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += edge || ring == 0 ? 1 : 2 * ring) {
+                    if (column < 0 || column >= columns) continue;
+                    for (int i = head[column + row * columns]; i >= 0; i = next[i]) {
+                        double distance = Math.hypot((xy[i * 2] - x) * scaleX, (xy[i * 2 + 1] - y) * scaleY);
+                        if (distance < bestDistance || distance == bestDistance && (best < 0 || i < best)) {
+                            bestDistance = distance;
+                            best = i;
+                        }
+                    }
+                }
+            }
+            double unvisited = Double.POSITIVE_INFINITY;
+            if (centerColumn - ring > 0) unvisited = Math.min(unvisited, (x - minX - (centerColumn - ring) * cellWidth) * scaleX);
+            if (centerColumn + ring < columns - 1) unvisited = Math.min(unvisited, (minX + (centerColumn + ring + 1) * cellWidth - x) * scaleX);
+            if (centerRow - ring > 0) unvisited = Math.min(unvisited, (y - minY - (centerRow - ring) * cellHeight) * scaleY);
+            if (centerRow + ring < rows - 1) unvisited = Math.min(unvisited, (minY + (centerRow + ring + 1) * cellHeight - y) * scaleY);
+            if (bestDistance <= unvisited) break;
+        }
+        return best;
+    }
+
+    private int column(double x) {
+        return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellWidth)));
+    }
+
+    private int row(double y) {
+        return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellHeight)));
+    }
+}
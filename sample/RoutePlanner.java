@@ -0,0 +1,231 @@
+package sample;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+public class RoutePlanner {
+    public static RouteGenerator plan(
+            double focusDistance,
+            double photoCensorHeight,
+            double photoCensorWidth,
+            double height,
+            double fieldHeight,
+            double fieldWidth
+    ) {
+        double[] a = calculate(focusDistance, photoCensorHeight, photoCensorWidth, height);
+        return new RouteGenerator(a[0], a[1], fieldHeight, fieldWidth);
+    }
+
+    // The prepared frame for a mission, from RouteCache.shared() when the same footprint and field were prepared
+    // before. Returns null if cancelled first.
+    public static RouteDrawer.Frame prepare(
+            double focusDistance,
+            double photoCensorHeight,
+            double photoCensorWidth,
+            double height,
+            double fieldHeight,
+            double fieldWidth,
+            BooleanSupplier cancelled
+    ) {
+        double[] a = calculate(focusDistance, photoCensorHeight, photoCensorWidth, height);
+        return RouteCache.shared().get(a[0], a[1], fieldHeight, fieldWidth,
+                () -> RouteDrawer.prepare(new RouteGenerator(a[0], a[1], fieldHeight, fieldWidth), fieldHeight, fieldWidth, cancelled));
+    }
+
+    public static double[] calculate(double focusDistance, double photoCensorHeight, double photoCensorWidth, double height) {
+        double photoCensorDiameter = Math.sqrt(photoCensorHeight * photoCensorHeight + photoCensorWidth * photoCensorWidth);
+        double groundDiameter = photoCensorDiameter * height / focusDistance;
+        double widthHeightRatio = photoCensorWidth / photoCensorHeight;
+        double groundHeight = Math.sqrt(groundDiameter * groundDiameter / (widthHeightRatio * widthHeightRatio + 1));
+        double groundWidth = Math.sqrt(groundDiameter * groundDiameter / (1 / (widthHeightRatio * widthHeightRatio) + 1));
+        return new double[] {groundHeight, groundWidth};
+    }
+
+    public static Route calculateRoute(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        return new ParallelRoutePlanner().plan(new RouteGenerator(photoHeight, photoWidth, fieldHeight, fieldWidth));
+    }
+
+    public static Route simulateRoute(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+        RouteCalculator routeCalculator = new RouteCalculator(photoHeight, photoWidth, fieldHeight, fieldWidth);
+        int h = routeCalculator.getHeight();
+        int w = routeCalculator.getWidth();
+
+        boolean invert = false;
+
+        if (h % 2 == 0 || w % 2 == 0) {
+            if (h % 2 == 0) {
+                routeCalculator = new RouteCalculator(photoWidth, photoHeight, fieldWidth, fieldHeight);
+                h = routeCalculator.getHeight();
+                w = routeCalculator.getWidth();
+                invert = true;
+            }
+
+            for (int i = 0; i < w - 1; i++) routeCalculator.moveRight();
+            if (h == 1) {
+                routeCalculator.end();
+            } else {
+                routeCalculator.moveUp();
+                for (int i = 0; i < w / 2; i++) {
+                    if (i != 0) routeCalculator.moveLeft();
+                    for (int j = 0; j < h - 2; j++) {
+                        routeCalculator.moveUp();
+                    }
+                    routeCalculator.moveLeft();
+                    for (int j = 0; j < h - 2; j++) {
+                        routeCalculator.moveDown();
+                    }
+                }
+                routeCalculator.end();
+            }
+        } else {
+            for (int i = 0; i < w - 1; i++) {
+                routeCalculator.moveRight();
+            }
+            if (h == 1) {
+                routeCalculator.end();
+            } else {
+                routeCalculator.moveUp();
+                for (int i = 0; i < (w - 3) / 2; i++) {
+                    if (i != 0) routeCalculator.moveLeft();
+                    for (int j = 0; j < h - 2; j++) {
+                        routeCalculator.moveUp();
+                    }
+                    routeCalculator.moveLeft();
+                    for (int j = 0; j < h - 2; j++) {
+                        routeCalculator.moveDown();
+                    }
+                }
+                routeCalculator.moveLeft();
+                for (int j = 0; j < h - 2; j++) {
+                    routeCalculator.moveUp();
+                }
+                routeCalculator.moveLeft();
+                for (int i = 0; i < (h - 1) / 2; i++) {
+                    if (i != 0) routeCalculator.moveDown();
+                    routeCalculator.moveLeft();
+                    routeCalculator.moveDown();
+                    routeCalculator.moveRight();
+                }
+                routeCalculator.end();
+            }
+        }
+
+        return invert ? invertCoords(routeCalculator.getRoute()) : routeCalculator.getRoute();
+    }
+
+    public static Route invertCoords(Route route) {
+        route.swapAxes();
+        return route;
+    }
+
+    public static void printRoute(RouteGenerator route, Appendable out) throws IOException {
+        IOException[] error = {null};
+        route.forEach((i, x, y) -> {
+            if (error[0] != null) return;
+            try {
+                out.append(Double.toString(x)).append(' ').append(Double.toString(y)).append('\n');
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) throw error[0];
+    }
+
+    private static class RouteCalculator {
+        private double photoHeight, photoWidth, fieldHeight, fieldWidth;
+        private double minX, minY, maxX, maxY;
+        private Route route;
+        private double x, y;
+
+        public RouteCalculator(double photoHeight, double photoWidth, double fieldHeight, double fieldWidth) {
+            this.photoHeight = photoHeight;
+            this.photoWidth = photoWidth;
+            this.fieldHeight = fieldHeight;
+            this.fieldWidth = fieldWidth;
+            minY = photoHeight / 2;
+            minX = photoWidth / 2;
+            maxY = fieldHeight - photoHeight / 2;
+            maxX = fieldWidth - photoWidth / 2;
+            route = new Route((int) Math.min((long) getHeight() * getWidth() + 2, Integer.MAX_VALUE / 2 - 8));
+            x = y = 0;
+            checkBounds();
+            saveCurrentCoords();
+        }
+
+        private void saveCurrentCoords() {
+            route.add(x, y);
+        }
+
+        private void checkBounds() {
+            y = Math.max(Math.min(y, maxY), minY);
+            x = Math.max(Math.min(x, maxX), minX);
+        }
+
+        public void moveRight() {
+            x += photoWidth;
+            checkBounds();
+            saveCurrentCoords();
+        }
+
+        public void moveLeft() {
+            x -= photoWidth;
+            checkBounds();
+            saveCurrentCoords();
+        }
+
+        public void moveUp() {
+            y += photoHeight;
+            checkBounds();
+            saveCurrentCoords();
+        }
+
+        public void moveDown() {
+            y -= photoHeight;
+            checkBounds();
+            saveCurrentCoords();
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+
+        public double getPhotoHeight() {
+            return photoHeight;
+        }
+
+        public double getPhotoWidth() {
+            return photoWidth;
+        }
+
+        public double getFieldHeight() {
+            return fieldHeight;
+        }
+
+        public double getFieldWidth() {
+            return fieldWidth;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return (int) Math.ceil(fieldWidth / photoWidth);
+        }
+
+        public int getHeight() {
+            return (int) Math.ceil(fieldHeight / photoHeight);
+        }
+
+        public void end() {
+            x = 0;
+            y = 0;
+            checkBounds();
+            saveCurrentCoords();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package sample;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class SweepOptimizer {
+    private static final int CORNERS = 4;
+
+    private final CoveragePlanner planner;
+    private final double metresPerTurn, metresPerPhoto;
+    private final ForkJoinPool pool;
+
+    public SweepOptimizer(double photoHeight, double photoWidth, double metresPerTurn, double metresPerPhoto) {
+        this(photoHeight, photoWidth, metresPerTurn, metresPerPhoto, ForkJoinPool.commonPool());
+    }
+
+    public SweepOptimizer(double photoHeight, double photoWidth, double metresPerTurn, double metresPerPhoto, ForkJoinPool pool) {
+        this.planner = new CoveragePlanner(photoHeight, photoWidth);
+        this.metresPerTurn = metresPerTurn;
+        this.metresPerPhoto = metresPerPhoto;
+        this.pool = pool;
+    }
+
+    public Result optimize(double homeX, double homeY, int angles, double[]... rings) {
+        if (angles < 1) throw new IllegalArgumentException("At least one sweep angle is needed");
+        long start = System.nanoTime();
+        Candidate best;
+        try {
+            best = pool.submit(() -> IntStream.range(0, angles).parallel()
+                    .mapToObj(step -> evaluate(180.0 * step / angles, homeX, homeY, rings))
+                    .reduce(null, SweepOptimizer::better)
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sweep optimization interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Sweep optimization failed", e.getCause());
+        }
+        long searched = System.nanoTime() - start;
+
+        CoveragePlanner.Plan plan = planner.plan(transform(rings, best.angle, best.corner));
+        plan.getRoute().rotate(radians(best.angle, best.corner), flip(best.corner));
+        return new Result(best, plan, angles * CORNERS, searched, System.nanoTime() - start - searched);
+    }
+
+    public Candidate evaluate(double angle, double homeX, double homeY, double[]... rings) {
+        Candidate best = null;
+        for (int corner = 0; corner < CORNERS; corner++) {
+            double[][] rotated = transform(rings, angle, corner);
+            CoveragePlanner.Estimate estimate = planner.estimate(rotated);
+            double[] start = {estimate.getStartX(), estimate.getStartY()};
+            untransform(start, 1, angle, corner);
+            double home = 2 * Math.hypot(start[0] - homeX, start[1] - homeY);
+            double cost = estimate.getLength() + home + estimate.getTurns() * metresPerTurn + estimate.getPhotos() * metresPerPhoto;
+            best = better(best, new Candidate(angle, corner, estimate, cost));
+        }
+        return best;
+    }
+
+    private static Candidate better(Candidate a, Candidate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.cost < a.cost || (b.cost == a.cost && b.angle < a.angle) ? b : a;
+    }
+
+    private static double radians(double angle, int corner) {
+        return Math.toRadians(angle + ((corner & 1) != 0 ? 180 : 0));
+    }
+
+    private static double flip(int corner) {
+        return (corner & 2) != 0 ? -1 : 1;
+    }
+
+    private static double[][] transform(double[][] rings, double angle, int corner) {
+        double radians = radians(angle, corner);
+        double cos = Math.cos(radians), sin = Math.sin(radians), flip = flip(corner);
+        double[][] result = new double[rings.length][];
+        for (int r = 0; r < rings.length; r++) {
+            double[] ring = rings[r], out = new double[ring.length];
+            for (int i = 0; i < ring.length; i += 2) {
+                double x = ring[i], y = ring[i + 1];
+                out[i] = x * cos + y * sin;
+                out[i + 1] = flip * (y * cos - x * sin);
+            }
+            result[r] = out;
+        }
+        return result;
+    }
+
+    private static void untransform(double[] xy, int count, double angle, int corner) {
+        double radians = radians(angle, corner);
+        double cos = Math.cos(radians), sin = Math.sin(radians), flip = flip(corner);
+        for (int i = 0; i < count * 2; i += 2) {
+            double x = xy[i], y = flip * xy[i + 1];
+            xy[i] = x * cos - y * sin;
+            xy[i + 1] = x * sin + y * cos;
+        }
+    }
+
+    public static class Candidate {
+        private final double angle;
+        private final int corner;
+        private final CoveragePlanner.Estimate estimate;
+        private final double cost;
+
+        private Candidate(double angle, int corner, CoveragePlanner.Estimate estimate, double cost) {
+            this.angle = angle;
+            this.corner = corner;
+            this.estimate = estimate;
+            this.cost = cost;
+        }
+
+        public double getAngle() {
+            return angle;
+        }
+
+        public int getCorner() {
+            return corner;
+        }
+
+        public CoveragePlanner.Estimate getEstimate() {
+            return estimate;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+    }
+
+    public static class Result {
+        private final Candidate best;
+        private final CoveragePlanner.Plan plan;
+        private final int candidates;
+        private final long searchNanos, planNanos;
+
+        private Result(Candidate best, CoveragePlanner.Plan plan, int candidates, long searchNanos, long planNanos) {
+            this.best = best;
+            this.plan = plan;
+            this.candidates = candidates;
+            this.searchNanos = searchNanos;
+            this.planNanos = planNanos;
+        }
+
+        public Candidate getBest() {
+            return best;
+        }
+
+        public Route getRoute() {
+            return plan.getRoute();
+        }
+
+        public int getCells() {
+            return plan.getCells();
+        }
+
+        public int getCandidates() {
+            return candidates;
+        }
+
+        public long getSearchNanos() {
+            return searchNanos;
+        }
+
+        public long getPlanNanos() {
+            return planNanos;
+        }
+    }
+}
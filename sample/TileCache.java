@@ -0,0 +1,223 @@
+package sample;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class TileCache implements Closeable {
+    public static final int SLOT_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x54494C45;
+    private static final int MAX_KEY_BYTES = HEADER_SIZE - 14;
+    public static final int MAX_TILE_SIZE = SLOT_SIZE - HEADER_SIZE;
+
+    private final FileChannel data;
+    private final Path indexPath;
+    private final int slots;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private long hits = 0, misses = 0, evictions = 0, rejected = 0;
+
+    public TileCache(Path path, long capacityBytes) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        slots = (int) Math.max(1, Math.min(capacityBytes / SLOT_SIZE, Integer.MAX_VALUE));
+        data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexPath = Paths.get(path + ".idx");
+
+        boolean[] used = new boolean[slots];
+        if (Files.exists(indexPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    if (parts.length != 3) continue;
+                    int slot;
+                    try {
+                        slot = Integer.parseInt(parts[1]);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    if (slot < 0 || slot >= slots || used[slot]) continue;
+                    Header header = header(slot);
+                    if (header == null || !header.key.equals(parts[0]) || index.containsKey(header.key)) continue;
+                    used[slot] = true;
+                    index.put(header.key, new Entry(slot, header.length));
+                }
+            }
+        }
+        // Slots written after the last flush are missing from the index, or listed under the key they held before.
+        for (int slot = 0; slot < slots; slot++) {
+            if (used[slot]) continue;
+            Header header = header(slot);
+            if (header != null && !index.containsKey(header.key)) index.put(header.key, new Entry(slot, header.length));
+            else freeSlots.add(slot);
+        }
+    }
+
+    public static String key(int zoom, long x, long y) {
+        return zoom + "/" + x + "/" + y;
+    }
+
+    public synchronized byte[] get(String key) throws IOException {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        ByteBuffer buffer = read(entry.slot, HEADER_SIZE + entry.length);
+        Header header = buffer == null ? null : Header.parse(buffer);
+        if (header == null || !header.key.equals(key) || header.length != entry.length || header.checksum != checksum(buffer.array(), HEADER_SIZE, entry.length)) {
+            index.remove(key);
+            freeSlots.add(entry.slot);
+            misses++;
+            return null;
+        }
+        hits++;
+        return Arrays.copyOfRange(buffer.array(), HEADER_SIZE, HEADER_SIZE + entry.length);
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public synchronized boolean put(String key, byte[] tile) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        // A tile has one slot; anything larger is served but never cached, so count it to make that visible.
+        if (tile.length > MAX_TILE_SIZE || keyBytes.length > MAX_KEY_BYTES) {
+            rejected++;
+            return false;
+        }
+        Entry entry = index.remove(key);
+        int slot;
+        if (entry != null) {
+            slot = entry.slot;
+        } else if (!freeSlots.isEmpty()) {
+            slot = freeSlots.poll();
+        } else {
+            Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+            slot = eldest.next().getValue().slot;
+            eldest.remove();
+            evictions++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + tile.length);
+        buffer.putInt(MAGIC).putInt(tile.length).putInt(checksum(tile, 0, tile.length))
+                .putShort((short) keyBytes.length).put(keyBytes)
+                .position(HEADER_SIZE);
+        buffer.put(tile).flip();
+        long position = (long) slot * SLOT_SIZE;
+        try {
+            while (buffer.hasRemaining()) data.write(buffer, position + buffer.position());
+        } catch (IOException e) {
+            freeSlots.add(slot);
+            throw e;
+        }
+        index.put(key, new Entry(slot, tile.length));
+        return true;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public int capacity() {
+        return slots;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized void flush() throws IOException {
+        data.force(false);
+        Path temp = Paths.get(indexPath + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : index.entrySet()) {
+                writer.write(entry.getKey() + " " + entry.getValue().slot + " " + entry.getValue().length);
+                writer.newLine();
+            }
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        data.close();
+    }
+
+    private Header header(int slot) throws IOException {
+        ByteBuffer buffer = read(slot, HEADER_SIZE);
+        return buffer == null ? null : Header.parse(buffer);
+    }
+
+    private ByteBuffer read(int slot, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long position = (long) slot * SLOT_SIZE;
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, position + buffer.position()) < 0) return null;
+        }
+        return buffer.flip();
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static class Header {
+        private final String key;
+        private final int length;
+        private final int checksum;
+
+        private Header(String key, int length, int checksum) {
+            this.key = key;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        private static Header parse(ByteBuffer buffer) {
+            if (buffer.getInt() != MAGIC) return null;
+            int length = buffer.getInt(), checksum = buffer.getInt(), keyLength = buffer.getShort();
+            if (length < 0 || length > MAX_TILE_SIZE || keyLength <= 0 || keyLength > MAX_KEY_BYTES) return null;
+            return new Header(new String(buffer.array(), 14, keyLength, StandardCharsets.UTF_8), length, checksum);
+        }
+    }
+
+    private static class Entry {
+        private final int slot;
+        private final int length;
+
+        private Entry(int slot, int length) {
+            this.slot = slot;
+            this.length = length;
+        }
+    }
+}
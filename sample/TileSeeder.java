@@ -0,0 +1,101 @@
+package sample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Paths;
+
+public class TileSeeder {
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    public static final int TILE_SIZE = 256;
+
+    public static double worldX(double longitude, int zoom) {
+        return (longitude + 180) / 360 * TILE_SIZE * (1L << zoom);
+    }
+
+    public static double worldY(double latitude, int zoom) {
+        double radians = Math.toRadians(latitude);
+        return (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * TILE_SIZE * (1L << zoom);
+    }
+
+    public static long tileX(double longitude, int zoom) {
+        long n = 1L << zoom;
+        return Math.max(0, Math.min(n - 1, (long) Math.floor(worldX(longitude, zoom) / TILE_SIZE)));
+    }
+
+    public static long tileY(double latitude, int zoom) {
+        long n = 1L << zoom;
+        return Math.max(0, Math.min(n - 1, (long) Math.floor(worldY(latitude, zoom) / TILE_SIZE)));
+    }
+
+    public static String tileUrl(String template, int zoom, long x, long y) {
+        return template
+                .replace("{z}", Integer.toString(zoom))
+                .replace("{x}", Long.toString(x))
+                .replace("{y}", Long.toString(y));
+    }
+
+    public static byte[] download(String template, int zoom, long x, long y) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(tileUrl(template, zoom, x, y)).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) return null;
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) >= 0) out.write(buffer, 0, read);
+                return out.toByteArray();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    public static long seed(TileCache cache, String template, MapView.LatLngBounds bounds, int minZoom, int maxZoom) throws IOException {
+        long stored = 0;
+        MapView.LatLng first = bounds.getFirstBound(), second = bounds.getSecondBound();
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            long x1 = tileX(Math.min(first.getLongitude(), second.getLongitude()), zoom);
+            long x2 = tileX(Math.max(first.getLongitude(), second.getLongitude()), zoom);
+            long y1 = tileY(Math.max(first.getLatitude(), second.getLatitude()), zoom);
+            long y2 = tileY(Math.min(first.getLatitude(), second.getLatitude()), zoom);
+            for (long x = x1; x <= x2; x++) {
+                for (long y = y1; y <= y2; y++) {
+                    String key = TileCache.key(zoom, x, y);
+                    if (cache.contains(key)) continue;
+                    byte[] tile = download(template, zoom, x, y);
+                    if (tile != null && cache.put(key, tile)) stored++;
+                }
+            }
+        }
+        cache.flush();
+        return stored;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            System.err.println("Usage: TileSeeder <lat1> <lng1> <lat2> <lng2> <minZoom> <maxZoom> [cacheFile] [urlTemplate]");
+            System.exit(2);
+        }
+        MapView.LatLngBounds bounds = new MapView.LatLngBounds(
+                new MapView.LatLng(Double.parseDouble(args[0]), Double.parseDouble(args[1])),
+                new MapView.LatLng(Double.parseDouble(args[2]), Double.parseDouble(args[3]))
+        );
+        String template = args.length > 7 ? args[7] : TileServer.DEFAULT_UPSTREAM;
+        if (template == null) {
+            System.err.println("No tile source: pass [urlTemplate] or set -Dmapview.tiles.upstream");
+            System.exit(2);
+        }
+        try (TileCache cache = args.length > 6
+                ? new TileCache(Paths.get(args[6]), TileServer.DEFAULT_CAPACITY)
+                : TileServer.openDefaultCache()) {
+            long stored = seed(cache, template, bounds, Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+            System.out.println("Seeded " + stored + " tiles, " + cache.size() + " cached");
+        }
+    }
+}
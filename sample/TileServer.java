@@ -0,0 +1,123 @@
+package sample;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+
+public class TileServer {
+    // No built-in imagery source: point this at a provider whose terms allow caching, e.g. {z}/{x}/{y} of your own tile server.
+    public static final String DEFAULT_UPSTREAM = System.getProperty("mapview.tiles.upstream");
+    public static final long DEFAULT_CAPACITY = Long.getLong("mapview.tiles.capacity", 256L * 1024 * 1024);
+
+    private static TileServer shared = null;
+
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final TileCache cache;
+    private final String upstream;
+    private final HttpServer server;
+    private volatile boolean upstreamEnabled = true;
+
+    public TileServer(TileCache cache, String upstream) throws IOException {
+        this.cache = cache;
+        this.upstream = upstream;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/tiles/", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "tile-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    public static synchronized TileServer shared() throws IOException {
+        if (shared == null) {
+            TileCache cache = openDefaultCache();
+            shared = new TileServer(cache, DEFAULT_UPSTREAM);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        return shared;
+    }
+
+    public static TileCache openDefaultCache() throws IOException {
+        return new TileCache(
+                Paths.get(System.getProperty("mapview.tiles.cache", System.getProperty("user.home") + "/.mapview/tiles.db")),
+                DEFAULT_CAPACITY
+        );
+    }
+
+    public String getUrlTemplate() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/tiles/{z}/{x}/{y}";
+    }
+
+    public TileCache getCache() {
+        return cache;
+    }
+
+    public boolean hasUpstream() {
+        return upstream != null;
+    }
+
+    public void setUpstreamEnabled(boolean upstreamEnabled) {
+        this.upstreamEnabled = upstreamEnabled;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public byte[] tile(int zoom, long x, long y) throws IOException {
+        String key = TileCache.key(zoom, x, y);
+        byte[] tile = cache.get(key);
+        if (tile == null && upstreamEnabled && upstream != null) {
+            tile = TileSeeder.download(upstream, zoom, x, y);
+            if (tile != null) cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] parts = exchange.getRequestURI().getPath().substring("/tiles/".length()).split("/");
+            if (parts.length != 3) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            int zoom = Integer.parseInt(parts[0]);
+            long x = Long.parseLong(parts[1]);
+            long y = Long.parseLong(parts[2]);
+            byte[] tile = tile(zoom, x, y);
+            if (tile == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=86400");
+            exchange.sendResponseHeaders(200, tile.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(tile);
+            }
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } catch (IOException e) {
+            // Once the 200 is out, a failed body write can only be answered by closing the exchange.
+            if (exchange.getResponseCode() < 0) exchange.sendResponseHeaders(502, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}